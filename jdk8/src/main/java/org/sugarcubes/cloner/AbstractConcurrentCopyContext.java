@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+/**
+ * Abstract copy context for parallel copying. The cloned objects are kept in the {@link ConcurrentIdentityTable},
+ * which may be shared by several contexts, each object is claimed and copied by exactly one thread.
+ *
+ * @author Maxim Butov
+ */
+public abstract class AbstractConcurrentCopyContext extends AbstractCopyContext {
+
+    /**
+     * Cloned objects.
+     */
+    private final ConcurrentIdentityTable clones;
+
+    /**
+     * Estimator of the graph size, may be {@code null}.
+     */
+    private final GraphSizeEstimator sizeEstimator;
+
+    /**
+     * Last original object registered in this context, used to skip the publishing of the clone after copying.
+     * The field is not volatile, the stale values only cause the redundant publishing.
+     */
+    private Object lastRegistered;
+
+    /**
+     * Creates an instance.
+     *
+     * @param copierProvider copier provider
+     * @param predefinedClones predefined cloned objects
+     * @param sizeEstimator estimator of the graph size, may be {@code null}
+     * @param clones table of the cloned objects, shared by the contexts copying the same graph
+     */
+    protected AbstractConcurrentCopyContext(CopierProvider copierProvider, IdentityTable predefinedClones,
+        GraphSizeEstimator sizeEstimator, ConcurrentIdentityTable clones) {
+        super(copierProvider, predefinedClones, null);
+        this.sizeEstimator = sizeEstimator;
+        this.clones = clones;
+    }
+
+    /**
+     * Creates the table of the cloned objects presized with the graph size estimator.
+     *
+     * @param sizeEstimator estimator of the graph size, may be {@code null}
+     * @return table of the cloned objects
+     */
+    protected static ConcurrentIdentityTable createClones(GraphSizeEstimator sizeEstimator) {
+        return new ConcurrentIdentityTable(sizeEstimator != null ? sizeEstimator.getExpectedSize() : 0);
+    }
+
+    /**
+     * Returns the table of the cloned objects.
+     *
+     * @return table of the cloned objects
+     */
+    protected ConcurrentIdentityTable getClones() {
+        return clones;
+    }
+
+    @Override
+    public <T> void register(T original, T clone) {
+        clones.publish(original, clone);
+        lastRegistered = original;
+    }
+
+    @Override
+    protected Object getClone(Object original) {
+        return clones.get(original);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T copyOnce(T original, ObjectCopier<T> copier) throws Exception {
+        ConcurrentIdentityTable.Owner owner = ConcurrentIdentityTable.Owner.current();
+        T clone = (T) clones.claim(original, owner);
+        if (clone != null) {
+            return clone;
+        }
+        try {
+            clone = copier.copy(original, this);
+        }
+        catch (Exception | Error e) {
+            clones.abandon(original, owner);
+            throw e;
+        }
+        if (lastRegistered != original) {
+            // the copier has registered other objects after this one, or has not registered the clone at all
+            clones.publishIfClaimed(original, owner, clone);
+        }
+        return clone;
+    }
+
+    /**
+     * Rethrows the exception thrown by another thread, wraps it into {@link ClonerException} if it is neither
+     * an exception nor an error.
+     *
+     * @param e exception
+     * @throws Exception the same exception
+     */
+    protected static void rethrow(Throwable e) throws Exception {
+        try {
+            throw e;
+        }
+        catch (Error | Exception ex) {
+            throw ex;
+        }
+        catch (Throwable ex) {
+            throw new ClonerException(ex);
+        }
+    }
+
+    @Override
+    public void release() {
+        if (sizeEstimator != null) {
+            sizeEstimator.record(clones.size());
+        }
+    }
+
+}
@@ -15,8 +15,8 @@
  */
 package org.sugarcubes.cloner;
 
-import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * Abstract copy context. Contains common code for the context implementations.
@@ -30,10 +30,50 @@ public abstract class AbstractCopyContext implements CopyContext {
      */
     private final CopierProvider copierProvider;
 
+    /**
+     * Predefined cloned objects, read-only and shared by the contexts, {@code null} if empty.
+     */
+    private final IdentityTable predefinedClones;
+
     /**
      * Previously copied objects.
      */
-    private final Map<Object, Object> clones;
+    private final IdentityTable clones;
+
+    /**
+     * Estimator of the graph size, may be {@code null}.
+     */
+    private final GraphSizeEstimator sizeEstimator;
+
+    /**
+     * Whether the copier depends only on the type of the object.
+     */
+    private final boolean typeBased;
+
+    /**
+     * Registry of the frozen objects, {@code null} if it was empty when the context was created or restarted.
+     */
+    private FrozenObjectRegistry frozenObjects;
+
+    /**
+     * View of this context which does not register the clones, used for the objects of the tree-shaped types.
+     */
+    private final CopyContext untracked = new UntrackedContext();
+
+    /**
+     * Visited objects of the tree-shaped types, created only for verification.
+     */
+    private IdentityTable visited;
+
+    /**
+     * Type of the last copied object, used as a front cache for {@link #copierProvider}.
+     */
+    private Class<?> lastType;
+
+    /**
+     * Copier of the last copied object.
+     */
+    private ObjectCopier<?> lastCopier;
 
     /**
      * Creates context with specified copier provider and predefined cloned objects.
@@ -42,8 +82,73 @@ public abstract class AbstractCopyContext implements CopyContext {
      * @param clones predefined cloned objects
      */
     protected AbstractCopyContext(CopierProvider copierProvider, Map<Object, Object> clones) {
+        this(copierProvider, new IdentityTable(clones), null);
+    }
+
+    /**
+     * Creates context with specified copier provider, predefined cloned objects and graph size estimator.
+     *
+     * @param copierProvider copier provider
+     * @param predefinedClones predefined cloned objects, the table is not modified by the context and may be shared
+     * by the contexts
+     * @param sizeEstimator estimator of the graph size, used to presize the table of the cloned objects,
+     * may be {@code null}
+     */
+    protected AbstractCopyContext(CopierProvider copierProvider, IdentityTable predefinedClones,
+        GraphSizeEstimator sizeEstimator) {
         this.copierProvider = copierProvider;
-        this.clones = new IdentityHashMap<>(clones);
+        this.predefinedClones = predefinedClones.size() != 0 ? predefinedClones : null;
+        this.sizeEstimator = sizeEstimator;
+        this.clones = new IdentityTable(getExpectedSize());
+        this.typeBased = copierProvider.isTypeBased();
+        this.frozenObjects = getFrozenObjects(copierProvider);
+    }
+
+    /**
+     * Returns the frozen object registry of the provider, if it is not empty.
+     *
+     * @param copierProvider copier provider
+     * @return frozen object registry or {@code null}
+     */
+    private static FrozenObjectRegistry getFrozenObjects(CopierProvider copierProvider) {
+        FrozenObjectRegistry frozenObjects = copierProvider.getFrozenObjects();
+        return frozenObjects != null && !frozenObjects.isEmpty() ? frozenObjects : null;
+    }
+
+    /**
+     * Returns the expected number of the copied objects.
+     *
+     * @return expected number of the copied objects
+     */
+    private int getExpectedSize() {
+        return sizeEstimator != null ? sizeEstimator.getExpectedSize() : 0;
+    }
+
+    @Override
+    public CopierProvider getCopierProvider() {
+        return copierProvider;
+    }
+
+    /**
+     * Returns copier for the object. If the copier provider is type based, then the copier of the last type is cached,
+     * graphs usually contain long runs of the objects of the same type. The cache is not thread safe, multithreaded
+     * contexts must override this method.
+     *
+     * @param <T> object type
+     * @param original original object
+     * @return copier
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> ObjectCopier<T> getCopier(T original) {
+        if (!typeBased) {
+            return copierProvider.getCopier(original);
+        }
+        Class<?> type = original.getClass();
+        if (type != lastType) {
+            lastCopier = copierProvider.getCopier(original);
+            lastType = type;
+        }
+        return (ObjectCopier<T>) lastCopier;
     }
 
     @Override
@@ -51,19 +156,41 @@ public abstract class AbstractCopyContext implements CopyContext {
         clones.put(original, clone);
     }
 
+    /**
+     * Returns the clone registered with {@link #register(Object, Object)}.
+     *
+     * @param original original object
+     * @return clone or {@code null}
+     */
+    protected Object getClone(Object original) {
+        return clones.get(original);
+    }
+
     @Override
     public <T> T copy(T original) throws Exception {
         if (original == null) {
             return null;
         }
-        ObjectCopier<T> copier = copierProvider.getCopier(original);
+        return copy(original, getCopier(original));
+    }
+
+    @Override
+    public <T> T copy(T original, ObjectCopier<T> copier) throws Exception {
         // trivial case
         if (copier == ObjectCopier.NOOP || copier == ObjectCopier.NULL) {
             return copier.copy(original, this);
         }
+        if (frozenObjects != null && frozenObjects.isFrozen(original)) {
+            return original;
+        }
         return doClone(original, copier);
     }
 
+    @Override
+    public <T> ObjectCopier<T> getTypeCopier(T original) {
+        return typeBased ? getCopier(original) : null;
+    }
+
     /**
      * Complex copying which must return non-null and non-original object.
      *
@@ -73,13 +200,54 @@ public abstract class AbstractCopyContext implements CopyContext {
      * @return copy of the original object
      * @throws Exception if something went wrong
      */
+    @SuppressWarnings("unchecked")
     protected <T> T doClone(T original, ObjectCopier<T> copier) throws Exception {
-        T clone = (T) clones.get(original);
+        T clone = predefinedClones != null ? (T) predefinedClones.get(original) : null;
         if (clone != null) {
             return clone;
         }
-        clone = copier.copy(original, this);
-        return clone;
+        if (copier instanceof TreeShapedCopier) {
+            TreeShapedCopier<T> treeShapedCopier = (TreeShapedCopier<T>) copier;
+            if (treeShapedCopier.isVerification()) {
+                visitTreeShaped(original);
+            }
+            return treeShapedCopier.getCopier().copy(original, untracked);
+        }
+        return copyOnce(original, copier);
+    }
+
+    /**
+     * Copies the object, unless it has been already copied.
+     *
+     * @param <T> object type
+     * @param original original object
+     * @param copier object copier
+     * @return copy of the original object
+     * @throws Exception if something went wrong
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T copyOnce(T original, ObjectCopier<T> copier) throws Exception {
+        T clone = (T) getClone(original);
+        if (clone != null) {
+            return clone;
+        }
+        return copier.copy(original, this);
+    }
+
+    /**
+     * Verifies that the object of the tree-shaped type has not been copied yet.
+     *
+     * @param original original object
+     * @throws ClonerException if the object is shared or cyclic
+     */
+    protected void visitTreeShaped(Object original) {
+        if (visited == null) {
+            visited = new IdentityTable();
+        }
+        if (visited.put(original, original) != null) {
+            throw new ClonerException(String.format("Object of tree-shaped type %s is shared or cyclic.",
+                original.getClass().getName()));
+        }
     }
 
     /**
@@ -89,4 +257,86 @@ public abstract class AbstractCopyContext implements CopyContext {
      */
     public abstract void complete() throws Exception;
 
+    /**
+     * Called by the cloner after successful copying. Records the number of the copied objects in the graph size
+     * estimator.
+     */
+    public void release() {
+        if (sizeEstimator != null) {
+            sizeEstimator.record(clones.size());
+        }
+    }
+
+    /**
+     * Called by the cloner after copying. Forgets the copied objects, shrinking the table if it has grown for
+     * an unusually large graph. Also forgets the cached copier of the last type, so the pooled context does not keep
+     * the class and its loader reachable.
+     *
+     * @return {@code true} if the context can be reused
+     */
+    public boolean reset() {
+        clones.clear(getExpectedSize());
+        if (visited != null) {
+            visited.clear(0);
+        }
+        lastType = null;
+        lastCopier = null;
+        return true;
+    }
+
+    /**
+     * Called by the cloner before the reused context starts copying. Rereads the frozen object registry, which may
+     * have been changed since the previous copying.
+     */
+    public void restart() {
+        frozenObjects = getFrozenObjects(copierProvider);
+    }
+
+    /**
+     * View of the context, which does not register the clones.
+     */
+    private final class UntrackedContext implements CopyContext {
+
+        @Override
+        public <T> void register(T original, T clone) {
+            // the objects of the tree-shaped types are never copied twice
+        }
+
+        @Override
+        public <T> T copy(T original) throws Exception {
+            return AbstractCopyContext.this.copy(original);
+        }
+
+        @Override
+        public <T> T copy(T original, ObjectCopier<T> copier) throws Exception {
+            return AbstractCopyContext.this.copy(original, copier);
+        }
+
+        @Override
+        public CopierProvider getCopierProvider() {
+            return copierProvider;
+        }
+
+        @Override
+        public <T> ObjectCopier<T> getTypeCopier(T original) {
+            return AbstractCopyContext.this.getTypeCopier(original);
+        }
+
+        @Override
+        public void thenInvoke(Callable<?> task) throws Exception {
+            AbstractCopyContext.this.thenInvoke(task);
+        }
+
+        @Override
+        public <T> void thenCopy(TwoPhaseObjectCopier<T> copier, T original, T clone) throws Exception {
+            AbstractCopyContext.this.thenCopy(copier, original, clone);
+        }
+
+        @Override
+        public void copyRange(ElementRange range) throws Exception {
+            AbstractCopyContext.this.copyRange(range);
+        }
+
+    }
+
 }
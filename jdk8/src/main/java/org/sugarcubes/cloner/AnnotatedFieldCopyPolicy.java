@@ -16,8 +16,6 @@
 package org.sugarcubes.cloner;
 
 import java.lang.reflect.Field;
-import java.util.Objects;
-import java.util.stream.Stream;
 
 /**
  * Field copy policy based on annotations.
@@ -28,12 +26,11 @@ public class AnnotatedFieldCopyPolicy implements CopyPolicy<Field> {
 
     @Override
     public CopyAction getAction(Field field) {
-        return Stream.of(field, field.getDeclaringClass())
-            .map(ae -> ae.getDeclaredAnnotation(FieldPolicy.class))
-            .filter(Objects::nonNull)
-            .map(FieldPolicy::value)
-            .findFirst()
-            .orElse(CopyAction.DEFAULT);
+        FieldPolicy annotation = field.getDeclaredAnnotation(FieldPolicy.class);
+        if (annotation == null) {
+            annotation = field.getDeclaringClass().getDeclaredAnnotation(FieldPolicy.class);
+        }
+        return annotation != null ? annotation.value() : CopyAction.DEFAULT;
     }
 
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Field copier factory which generates one {@link FieldCopier} class per type at runtime. The generated copier copies
+ * all the fields of the type (including the fields of the super types) in the single straight-line method, thus,
+ * there is no per-field dispatch. Requires {@link sun.misc.Unsafe}.
+ *
+ * @see FieldCopierGenerator
+ * @see ClassDefinerUtils
+ *
+ * @author Maxim Butov
+ */
+public final class BytecodeFieldCopierFactory implements TypeFieldCopierFactory {
+
+    /**
+     * Prefix of the generated class names.
+     */
+    private static final String CLASS_NAME_PREFIX = "org/sugarcubes/cloner/GeneratedFieldCopier$";
+
+    /**
+     * Counter for the unique class names.
+     */
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    /**
+     * Factory for the single fields.
+     */
+    private final FieldCopierFactory singleFieldCopierFactory = new UnsafeFieldCopierFactory();
+
+    @Override
+    public FieldCopier getFieldCopier(Field field, CopyAction action) {
+        return singleFieldCopierFactory.getFieldCopier(field, action);
+    }
+
+    @Override
+    public FieldCopier getFieldCopier(Class<?> type, Map<Field, CopyAction> fields) {
+        if (fields.size() <= FieldCopierGenerator.MAX_FIELDS) {
+            return generate(fields);
+        }
+        List<FieldCopier> copiers = new ArrayList<>();
+        Map<Field, CopyAction> chunk = new LinkedHashMap<>();
+        for (Map.Entry<Field, CopyAction> entry : fields.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == FieldCopierGenerator.MAX_FIELDS) {
+                copiers.add(generate(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            copiers.add(generate(chunk));
+        }
+        return FieldCopier.compound(copiers);
+    }
+
+    /**
+     * Generates, defines and instantiates field copier class.
+     *
+     * @param fields map (field, copy action)
+     * @return field copier
+     */
+    private static FieldCopier generate(Map<Field, CopyAction> fields) {
+        if (fields.isEmpty()) {
+            return FieldCopier.NOOP;
+        }
+        byte[] bytes = FieldCopierGenerator.generate(CLASS_NAME_PREFIX + COUNTER.incrementAndGet(), fields);
+        Constructor<?> constructor = ReflectionUtils.getConstructor(ClassDefinerUtils.defineClass(bytes));
+        return (FieldCopier) ReflectionUtils.execute(constructor::newInstance);
+    }
+
+}
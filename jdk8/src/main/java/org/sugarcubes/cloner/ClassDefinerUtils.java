@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+
+import sun.misc.Unsafe;
+
+/**
+ * Utility class to define classes at runtime. Uses the best available way: hidden classes on Java 15+,
+ * {@code MethodHandles.Lookup.defineClass()} on Java 9+ and {@code Unsafe.defineAnonymousClass()} on Java 8.
+ * The classes are defined in the package of this class.
+ *
+ * @author Maxim Butov
+ */
+public class ClassDefinerUtils {
+
+    /**
+     * Class definition function.
+     */
+    @FunctionalInterface
+    private interface ClassDefiner {
+
+        /**
+         * Defines class.
+         *
+         * @param bytes class file bytes
+         * @return defined class
+         * @throws ReflectiveOperationException in case of reflection error
+         */
+        Class<?> define(byte[] bytes) throws ReflectiveOperationException;
+
+    }
+
+    /**
+     * Name of the {@code MethodHandles.Lookup.ClassOption} class, which is available on Java 15+.
+     */
+    private static final String CLASS_OPTION_CLASS_NAME = "java.lang.invoke.MethodHandles$Lookup$ClassOption";
+
+    /**
+     * Class definer for the current JVM.
+     */
+    private static final ClassDefiner DEFINER = createDefiner();
+
+    /**
+     * Defines class in the package of this class.
+     *
+     * @param bytes class file bytes
+     * @return defined class
+     */
+    public static Class<?> defineClass(byte[] bytes) {
+        return ReflectionUtils.execute(() -> DEFINER.define(bytes));
+    }
+
+    /**
+     * Creates the best available class definer.
+     *
+     * @return class definer
+     */
+    private static ClassDefiner createDefiner() {
+        if (ReflectionUtils.isClassAvailable(CLASS_OPTION_CLASS_NAME)) {
+            return hiddenClassDefiner();
+        }
+        if (ReflectionUtils.isMethodAvailable(MethodHandles.Lookup.class, "defineClass", byte[].class)) {
+            return lookupClassDefiner();
+        }
+        return unsafeClassDefiner();
+    }
+
+    /**
+     * Creates class definer which uses {@code MethodHandles.Lookup.defineHiddenClass()} (Java 15+).
+     * Hidden classes can be unloaded as soon as they are not used.
+     *
+     * @return class definer
+     */
+    private static ClassDefiner hiddenClassDefiner() {
+        Object noOptions = Array.newInstance(ReflectionUtils.classForName(CLASS_OPTION_CLASS_NAME), 0);
+        Method defineHiddenClass = ReflectionUtils.getMethod(MethodHandles.Lookup.class, "defineHiddenClass",
+            byte[].class, boolean.class, noOptions.getClass());
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        return bytes -> ((MethodHandles.Lookup) defineHiddenClass.invoke(lookup, bytes, true, noOptions)).lookupClass();
+    }
+
+    /**
+     * Creates class definer which uses {@code MethodHandles.Lookup.defineClass()} (Java 9+).
+     *
+     * @return class definer
+     */
+    private static ClassDefiner lookupClassDefiner() {
+        Method defineClass = ReflectionUtils.getMethod(MethodHandles.Lookup.class, "defineClass", byte[].class);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        return bytes -> (Class<?>) defineClass.invoke(lookup, (Object) bytes);
+    }
+
+    /**
+     * Creates class definer which uses {@code Unsafe.defineAnonymousClass()} (Java 8).
+     *
+     * @return class definer
+     */
+    private static ClassDefiner unsafeClassDefiner() {
+        Method defineAnonymousClass = ReflectionUtils.getMethod(Unsafe.class, "defineAnonymousClass",
+            Class.class, byte[].class, Object[].class);
+        Unsafe unsafe = UnsafeUtils.getUnsafe();
+        return bytes -> (Class<?>) defineAnonymousClass.invoke(unsafe, ClassDefinerUtils.class, bytes, null);
+    }
+
+    /**
+     * Utility class.
+     */
+    private ClassDefinerUtils() {
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Finds the classes of a package (including subpackages) in the directories and jar files of the class loader.
+ * To be used with {@link Cloner#prepare(java.util.Collection, java.util.concurrent.Executor)}.
+ *
+ * @author Maxim Butov
+ */
+public class ClassScanner {
+
+    /**
+     * Class file suffix.
+     */
+    private static final String CLASS_SUFFIX = ".class";
+
+    /**
+     * Finds the classes of the package and its subpackages. The classes are not initialized, the classes which
+     * cannot be loaded are ignored.
+     *
+     * @param packageName package name
+     * @param classLoader class loader
+     * @return list of classes
+     * @throws ClonerException if the class path cannot be read
+     */
+    public static List<Class<?>> findClasses(String packageName, ClassLoader classLoader) throws ClonerException {
+        String path = packageName.replace('.', '/');
+        TreeSet<String> classNames = new TreeSet<>();
+        try {
+            for (URL url : Collections.list(classLoader.getResources(path))) {
+                if ("file".equals(url.getProtocol())) {
+                    findClassNames(Paths.get(url.toURI()), packageName, classNames);
+                }
+                else if ("jar".equals(url.getProtocol())) {
+                    findClassNames((JarURLConnection) url.openConnection(), path, classNames);
+                }
+            }
+        }
+        catch (IOException | UncheckedIOException | URISyntaxException e) {
+            throw new ClonerException(e);
+        }
+        List<Class<?>> classes = new ArrayList<>();
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            }
+            catch (ClassNotFoundException | LinkageError e) {
+                // ignore
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Finds the names of the classes in the directory.
+     *
+     * @param directory package directory
+     * @param packageName package name
+     * @param classNames found class names
+     * @throws IOException if the directory cannot be read
+     */
+    private static void findClassNames(Path directory, String packageName, TreeSet<String> classNames) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.map(file -> directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+                .filter(ClassScanner::isClassFile)
+                .forEach(file -> classNames.add(toClassName(packageName.replace('.', '/') + '/' + file)));
+        }
+    }
+
+    /**
+     * Finds the names of the classes in the jar file.
+     *
+     * @param connection connection to the package entry of the jar file
+     * @param path package path
+     * @param classNames found class names
+     * @throws IOException if the jar file cannot be read
+     */
+    private static void findClassNames(JarURLConnection connection, String path, TreeSet<String> classNames)
+        throws IOException {
+        connection.setUseCaches(false);
+        try (JarFile jarFile = connection.getJarFile()) {
+            for (JarEntry entry : Collections.list(jarFile.entries())) {
+                String name = entry.getName();
+                if (name.startsWith(path + '/') && isClassFile(name)) {
+                    classNames.add(toClassName(name));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the file is a class file, but not a module or package descriptor.
+     *
+     * @param file file path
+     * @return {@code true} if the file is a class file
+     */
+    private static boolean isClassFile(String file) {
+        return file.endsWith(CLASS_SUFFIX) && !file.endsWith("-info" + CLASS_SUFFIX);
+    }
+
+    /**
+     * Converts class file path to the class name.
+     *
+     * @param file class file path
+     * @return class name
+     */
+    private static String toClassName(String file) {
+        return file.substring(0, file.length() - CLASS_SUFFIX.length()).replace('/', '.');
+    }
+
+    /**
+     * Utility class.
+     */
+    private ClassScanner() {
+    }
+
+}
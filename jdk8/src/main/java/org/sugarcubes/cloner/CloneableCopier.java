@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copier for {@link Cloneable} objects which creates a shallow clone with {@link Object#clone()} and then patches only
+ * the reference fields which need it: the fields with {@link CopyAction#DEFAULT} action are deep copied, the fields with
+ * {@link CopyAction#NULL} action are set to {@code null}. Primitive fields and reference fields with
+ * {@link CopyAction#ORIGINAL} action are copied by {@link Object#clone()} at once. The types with the fields with
+ * {@link CopyAction#SKIP} action are not copied with this copier, because {@link Object#clone()} would copy the fields,
+ * which must be left as the allocator has initialized them.
+ *
+ * @author Maxim Butov
+ */
+public class CloneableCopier<T> extends TwoPhaseObjectCopier<T> {
+
+    /**
+     * {@link Object#clone()} method.
+     */
+    private static final Method CLONE_METHOD = ReflectionUtils.getMethod(Object.class, "clone");
+
+    /**
+     * Method handle of {@link Object#clone()} with type {@code (Object)Object}. It is {@code null} on Java 8, because
+     * the compiled code which invokes {@link Object#clone()} through the method handle may crash Java 8 JVM.
+     */
+    private static final MethodHandle CLONE_HANDLE = ReflectionUtils.isClassAvailable("java.lang.Module") ?
+        ReflectionUtils.execute(() -> MethodHandles.lookup().unreflect(CLONE_METHOD)) : null;
+
+    /**
+     * Field copier which patches the shallow clone.
+     */
+    private final FieldCopier fieldCopier;
+
+    /**
+     * Creates copier.
+     *
+     * @param type object type
+     * @param fields reference fields to patch, map (field, copy action)
+     * @param fieldCopierFactory field copier factory
+     */
+    public CloneableCopier(Class<T> type, Map<Field, CopyAction> fields, FieldCopierFactory fieldCopierFactory) {
+        Check.illegalArg(!Cloneable.class.isAssignableFrom(type), "%s is not cloneable.", type);
+        if (fields.isEmpty()) {
+            this.fieldCopier = FieldCopier.NOOP;
+        }
+        else if (fieldCopierFactory instanceof TypeFieldCopierFactory) {
+            this.fieldCopier = ((TypeFieldCopierFactory) fieldCopierFactory).getFieldCopier(type, fields);
+        }
+        else {
+            List<FieldCopier> copiers = new ArrayList<>();
+            fields.forEach((field, action) -> copiers.add(fieldCopierFactory.getFieldCopier(field, action)));
+            this.fieldCopier = FieldCopier.compound(copiers);
+        }
+    }
+
+    /**
+     * Returns the reference fields of the type and all its super types which must be patched after
+     * {@link Object#clone()}. Returns {@code null} if the type cannot be copied with {@link Object#clone()},
+     * i.e. it has fields with {@link CopyAction#SKIP} action.
+     *
+     * @param policy copy policy
+     * @param type object type
+     * @return map (field, copy action) or {@code null}
+     */
+    static Map<Field, CopyAction> getPatchActions(CopyPolicy<Field> policy, Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> t = type; t != null; t = t.getSuperclass()) {
+            hierarchy.push(t);
+        }
+        Map<Field, CopyAction> fields = new LinkedHashMap<>();
+        for (Class<?> t : hierarchy) {
+            for (Field field : t.getDeclaredFields()) {
+                if (ReflectionUtils.isNonStatic(field)) {
+                    CopyAction action = policy.getAction(field);
+                    if (action == CopyAction.SKIP) {
+                        return null;
+                    }
+                    if (!field.getType().isPrimitive() && action != CopyAction.ORIGINAL) {
+                        fields.put(field, action);
+                    }
+                }
+            }
+        }
+        return fields;
+    }
+
+    @Override
+    public T copy(T original, CopyContext context) throws Exception {
+        if (fieldCopier == FieldCopier.NOOP) {
+            T clone = allocate(original);
+            context.register(original, clone);
+            return clone;
+        }
+        return super.copy(original, context);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T allocate(T original) throws Exception {
+        if (CLONE_HANDLE == null) {
+            return (T) CLONE_METHOD.invoke(original);
+        }
+        try {
+            return (T) (Object) CLONE_HANDLE.invokeExact((Object) original);
+        }
+        catch (Throwable e) {
+            throw new ClonerException(e);
+        }
+    }
+
+    @Override
+    public void deepCopy(T original, T clone, CopyContext context) throws Exception {
+        fieldCopier.copy(original, clone, context);
+    }
+
+}
@@ -15,6 +15,10 @@
  */
 package org.sugarcubes.cloner;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+
 /**
  * Cloner interface.
  *
@@ -32,4 +36,41 @@ public interface Cloner {
      */
     <T> T clone(T object) throws ClonerException;
 
+    /**
+     * Creates the copiers for the types in advance, so the first cloning of the objects of these types is not slowed
+     * down. Interfaces, abstract classes and primitive types are ignored. This is a hint only, see
+     * {@link #prepare(Collection, Executor)}.
+     *
+     * @param types types
+     * @throws ClonerException if something went wrong
+     */
+    default void prepare(Class<?>... types) throws ClonerException {
+        prepare(Arrays.asList(types), Runnable::run);
+    }
+
+    /**
+     * Creates the copiers for the types in advance using the executor and waits for the completion. The types of a
+     * package can be found with {@link ClassScanner#findClasses(String, ClassLoader)}.
+     *
+     * <p>This is a hint only: the result of the cloning does not depend on whether the types were prepared. The default
+     * implementation does nothing, which suits the cloners without per-type state (e.g. {@link SerializationCloner});
+     * the cloners which create the copiers lazily override it.</p>
+     *
+     * @param types types
+     * @param executor executor
+     * @throws ClonerException if something went wrong
+     */
+    default void prepare(Collection<Class<?>> types, Executor executor) throws ClonerException {
+    }
+
+    /**
+     * Creates the copiers for all the objects of the sample graph in advance. By default, just clones the sample.
+     *
+     * @param sample sample object graph
+     * @throws ClonerException if something went wrong
+     */
+    default void prepareGraph(Object sample) throws ClonerException {
+        clone(sample);
+    }
+
 }
@@ -15,6 +15,10 @@
  */
 package org.sugarcubes.cloner;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 /**
@@ -24,27 +28,65 @@ import java.util.function.Supplier;
  */
 public class ClonerImpl implements Cloner {
 
+    /**
+     * Copier provider, may be {@code null}.
+     */
+    private final CopierProvider copierProvider;
+
     /**
      * Creates context for the single copy process.
      */
     private final Supplier<? extends AbstractCopyContext> contextSupplier;
 
+    /**
+     * Idle context of the current thread, which can be reused.
+     */
+    private final ThreadLocal<AbstractCopyContext> contexts = new ThreadLocal<>();
+
     /**
      * Creates cloner with custom context supplier.
      *
      * @param contextSupplier context supplier
      */
     public ClonerImpl(Supplier<? extends AbstractCopyContext> contextSupplier) {
+        this(null, contextSupplier);
+    }
+
+    /**
+     * Creates cloner with copier provider and custom context supplier. The provider is used to find the copier
+     * of the root object, so the objects which are not copied (e.g. immutable ones) are returned without creation
+     * of the context.
+     *
+     * @param copierProvider copier provider, must be the same as the provider of the contexts, may be {@code null}
+     * @param contextSupplier context supplier
+     */
+    public ClonerImpl(CopierProvider copierProvider, Supplier<? extends AbstractCopyContext> contextSupplier) {
+        this.copierProvider = copierProvider;
         this.contextSupplier = contextSupplier;
     }
 
     @Override
     public <T> T clone(T object) {
         try {
-            AbstractCopyContext context = contextSupplier.get();
-            T clone = context.copy(object);
-            context.complete();
-            return clone;
+            if (object == null) {
+                return null;
+            }
+            ObjectCopier<T> copier = copierProvider != null ? copierProvider.getCopier(object) : null;
+            if (copier == ObjectCopier.NOOP || copier == ObjectCopier.NULL) {
+                return copier.copy(object, null);
+            }
+            AbstractCopyContext context = acquireContext();
+            try {
+                T clone = copier != null ? context.copy(object, copier) : context.copy(object);
+                context.complete();
+                context.release();
+                return clone;
+            }
+            finally {
+                if (context.reset()) {
+                    contexts.set(context);
+                }
+            }
         }
         catch (ClonerException e) {
             throw e;
@@ -54,4 +96,36 @@ public class ClonerImpl implements Cloner {
         }
     }
 
+    /**
+     * Returns the idle context of the current thread or creates a new one. The context is taken from the thread,
+     * so the nested cloning (e.g. from a custom copier) gets another context.
+     *
+     * @return context
+     */
+    private AbstractCopyContext acquireContext() {
+        AbstractCopyContext context = contexts.get();
+        if (context == null) {
+            return contextSupplier.get();
+        }
+        contexts.set(null);
+        context.restart();
+        return context;
+    }
+
+    @Override
+    public void prepare(Collection<Class<?>> types, Executor executor) {
+        CopierProvider copierProvider =
+            this.copierProvider != null ? this.copierProvider : contextSupplier.get().getCopierProvider();
+        CompletableFuture<?>[] futures = types.stream()
+            .map(type -> CompletableFuture.runAsync(() -> copierProvider.prepare(type), executor))
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).join();
+        }
+        catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof ClonerException ? (ClonerException) cause : new ClonerException(cause);
+        }
+    }
+
 }
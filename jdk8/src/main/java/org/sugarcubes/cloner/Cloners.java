@@ -22,6 +22,18 @@ package org.sugarcubes.cloner;
  */
 public class Cloners {
 
+    /**
+     * Holder of the default reflection cloner, created on demand.
+     */
+    private static final class DefaultCloner {
+
+        /**
+         * Reflection cloner with default settings.
+         */
+        static final Cloner INSTANCE = builder().build();
+
+    }
+
     /**
      * Returns a new instance of {@link ReflectionClonerBuilder}.
      *
@@ -32,12 +44,13 @@ public class Cloners {
     }
 
     /**
-     * Returns an instance of {@link Cloner} with default settings.
+     * Returns an instance of {@link Cloner} with default settings. The instance is shared, so the copiers created
+     * by one caller are reused by the others.
      *
      * @return reflection sequential cloner
      */
     public static Cloner reflection() {
-        return builder().build();
+        return DefaultCloner.INSTANCE;
     }
 
     /**
@@ -37,4 +37,15 @@ public enum CloningMode {
      */
     PARALLEL,
 
+    /**
+     * One thread with recursion up to the limited depth, the deeper objects are copied without recursion.
+     */
+    HYBRID,
+
+    /**
+     * Several threads, the graph is copied breadth-first level by level, each level is partitioned between
+     * the threads.
+     */
+    LEVEL_SYNCHRONOUS,
+
 }
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Thread safe identity map of the original objects to their clones with claim-then-publish semantics: exactly one
+ * thread claims the original object and copies it, the other threads wait until the clone is published.
+ *
+ * <p>The table is divided into the stripes, each of them is an {@link IdentityTable} guarded by its own lock,
+ * so the threads copying the different objects rarely contend. The monitors of the original objects are never used.
+ * The keys must not be {@code null}, the removal of the keys is not supported.</p>
+ *
+ * <p>The waiting is done with {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)}, so the fork-join pool
+ * may compensate the blocked worker thread.</p>
+ *
+ * @author Maxim Butov
+ */
+public final class ConcurrentIdentityTable {
+
+    /**
+     * Minimum number of the stripes, must be a power of two.
+     */
+    private static final int MINIMUM_STRIPES = 16;
+
+    /**
+     * Maximum number of the stripes, must be a power of two.
+     */
+    private static final int MAXIMUM_STRIPES = 1024;
+
+    /**
+     * Number of the stripes per available processor.
+     */
+    private static final int STRIPES_PER_PROCESSOR = 4;
+
+    /**
+     * Value of the original object, which copying has failed.
+     */
+    private static final Object ABANDONED = new Object();
+
+    /**
+     * Stripes.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Creates table with minimum capacity.
+     */
+    public ConcurrentIdentityTable() {
+        this(0);
+    }
+
+    /**
+     * Creates table for the expected number of entries.
+     *
+     * @param expectedSize expected number of entries
+     */
+    public ConcurrentIdentityTable(int expectedSize) {
+        int count = MINIMUM_STRIPES;
+        int processors = Runtime.getRuntime().availableProcessors();
+        while (count < processors * STRIPES_PER_PROCESSOR && count < MAXIMUM_STRIPES) {
+            count <<= 1;
+        }
+        stripes = new Stripe[count];
+        for (int k = 0; k < count; k++) {
+            stripes[k] = new Stripe(expectedSize / count);
+        }
+    }
+
+    /**
+     * Returns the stripe of the key.
+     *
+     * @param key key
+     * @return stripe
+     */
+    private Stripe stripeOf(Object key) {
+        // the index of the identity table is taken from the high bits of the mixed hash code, so the low bits are used
+        return stripes[System.identityHashCode(key) & (stripes.length - 1)];
+    }
+
+    /**
+     * Returns the published value of the key.
+     *
+     * @param key key
+     * @return value or {@code null} if the key is absent or the value has not been published yet
+     */
+    public Object get(Object key) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Object value = stripe.table.get(key);
+            return value instanceof Owner || value == ABANDONED ? null : value;
+        }
+    }
+
+    /**
+     * Claims the key for the owner or returns the published value. If the key is claimed by another owner,
+     * waits until the value is published.
+     *
+     * @param key key
+     * @param owner owner, unique for the thread
+     * @return published value or {@code null} if the key has been claimed by the owner, which must
+     * {@link #publish(Object, Object) publish} the value or {@link #abandon(Object, Owner) abandon} the key
+     * @throws ClonerException if the key is claimed by the same owner, if the copying of the key has failed in another
+     * thread or if the thread is interrupted while waiting
+     */
+    public Object claim(Object key, Owner owner) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Object value = stripe.table.get(key);
+            if (value == null) {
+                stripe.table.put(key, owner);
+                return null;
+            }
+            while (value instanceof Owner) {
+                if (value == owner) {
+                    throw new ClonerException(String.format("Object of type %s is referenced before its clone is " +
+                        "registered.", key.getClass().getName()));
+                }
+                stripe.await();
+                value = stripe.table.get(key);
+            }
+            if (value == ABANDONED) {
+                throw new ClonerException(String.format("Copying of object of type %s has failed.",
+                    key.getClass().getName()));
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Publishes the value of the key, whether it has been claimed or not.
+     *
+     * @param key key
+     * @param value value, not {@code null}
+     */
+    public void publish(Object key, Object value) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.table.put(key, value);
+            stripe.signal();
+        }
+    }
+
+    /**
+     * Publishes the value of the key if it is still claimed by the owner.
+     *
+     * @param key key
+     * @param owner owner
+     * @param value value, not {@code null}
+     */
+    public void publishIfClaimed(Object key, Owner owner, Object value) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            if (stripe.table.get(key) == owner) {
+                stripe.table.put(key, value);
+                stripe.signal();
+            }
+        }
+    }
+
+    /**
+     * Abandons the key claimed by the owner, the threads waiting for the value will fail.
+     *
+     * @param key key
+     * @param owner owner
+     */
+    public void abandon(Object key, Owner owner) {
+        publishIfClaimed(key, owner, ABANDONED);
+    }
+
+    /**
+     * Returns the number of entries, including the claimed keys.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.table.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Owner of the claimed keys. A thread must use the same owner for all its claims, so the reference to the object
+     * being copied by the same thread is detected instead of waiting forever. The copy contexts use the owner of the
+     * current thread (see {@link #current()}), so the detection works even if the thread copies in several contexts
+     * sharing the table, e.g. a fork-join thread running another task.
+     */
+    public static final class Owner {
+
+        /**
+         * Owners of the threads.
+         */
+        private static final ThreadLocal<Owner> CURRENT = ThreadLocal.withInitial(Owner::new);
+
+        /**
+         * Returns the owner of the current thread.
+         *
+         * @return owner
+         */
+        public static Owner current() {
+            return CURRENT.get();
+        }
+
+    }
+
+    /**
+     * Part of the table with its own lock.
+     */
+    private static final class Stripe implements ForkJoinPool.ManagedBlocker {
+
+        /**
+         * Entries of the stripe.
+         */
+        private final IdentityTable table;
+
+        /**
+         * Number of the threads waiting for the values.
+         */
+        private int waiters;
+
+        /**
+         * Creates a stripe.
+         *
+         * @param expectedSize expected number of entries
+         */
+        Stripe(int expectedSize) {
+            table = new IdentityTable(expectedSize);
+        }
+
+        /**
+         * Waits for the next published value. Must be called while holding the lock.
+         */
+        void await() {
+            waiters++;
+            try {
+                ForkJoinPool.managedBlock(this);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClonerException(e);
+            }
+            finally {
+                waiters--;
+            }
+        }
+
+        /**
+         * Waits for the next published value. Called by {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)}
+         * while holding the lock.
+         *
+         * @return {@code true}, the caller checks the published value
+         * @throws InterruptedException if the thread is interrupted
+         */
+        @Override
+        public boolean block() throws InterruptedException {
+            wait();
+            return true;
+        }
+
+        /**
+         * The value is published by another thread, so the waiting is always necessary.
+         *
+         * @return {@code false}
+         */
+        @Override
+        public boolean isReleasable() {
+            return false;
+        }
+
+        /**
+         * Wakes up the waiting threads. Must be called while holding the lock.
+         */
+        void signal() {
+            if (waiters != 0) {
+                notifyAll();
+            }
+        }
+
+    }
+
+}
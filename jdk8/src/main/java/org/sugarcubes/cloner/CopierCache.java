@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache of the copiers by type. The copiers are stored in {@link ClassValue}, so the cache does not prevent the classes
+ * (and their class loaders) from unloading, and the lookup is as fast as {@link ClassValue#get(Class)}.
+ *
+ * <p>The copier for the type is created only once, the concurrent callers for the same type wait for the single
+ * construction. The construction is published with compare-and-set and runs outside of any lock, so the factories
+ * may look up the copiers of the other types. If the factory throws an exception, nothing is cached and the next call
+ * tries again.</p>
+ *
+ * <p>The cache is not bounded: the copiers are referenced by the other copiers (e.g. by the inline caches of the
+ * fields), so evicting them from the cache would not free the memory. Hit and miss counters are maintained if
+ * enabled with {@link #recordStats()}, otherwise the lookup does not pay for them.</p>
+ *
+ * @see ReflectionClonerBuilder#setCopierCache(CopierCache)
+ *
+ * @author Maxim Butov
+ */
+public class CopierCache {
+
+    /**
+     * Mutable holder of the copier of the type.
+     */
+    private static final class Holder {
+
+        /**
+         * Copier or {@code null} if not created yet.
+         */
+        volatile ObjectCopier<?> copier;
+
+        /**
+         * Construction of the copier or {@code null} if not started or failed.
+         */
+        final AtomicReference<FutureTask<ObjectCopier<?>>> construction = new AtomicReference<>();
+
+        /**
+         * Thread which runs the construction or {@code null}.
+         */
+        volatile Thread constructor;
+
+    }
+
+    /**
+     * Holders of the copiers.
+     */
+    private final ClassValue<Holder> holders = new ClassValue<Holder>() {
+        @Override
+        protected Holder computeValue(Class<?> type) {
+            return new Holder();
+        }
+    };
+
+    /**
+     * Whether the cache is used by a copier provider.
+     */
+    private boolean bound;
+
+    /**
+     * Hit counter or {@code null} if statistics is not recorded.
+     */
+    private LongAdder hits;
+
+    /**
+     * Miss counter or {@code null} if statistics is not recorded.
+     */
+    private LongAdder misses;
+
+    /**
+     * Enables hit and miss counters. Must be called before the cache is used.
+     *
+     * @return same cache instance
+     */
+    public CopierCache recordStats() {
+        hits = new LongAdder();
+        misses = new LongAdder();
+        return this;
+    }
+
+    /**
+     * Marks the cache as used by a copier provider. The copiers depend on the configuration of the provider, so the
+     * cache cannot be shared between the providers.
+     *
+     * @return same cache instance
+     * @throws IllegalArgumentException if the cache is already used by another provider
+     */
+    synchronized CopierCache bind() {
+        Check.illegalArg(bound, "Copier cache is already used by another cloner.");
+        bound = true;
+        return this;
+    }
+
+    /**
+     * Returns copier of the type, creates it if necessary.
+     *
+     * @param <C> copier type
+     * @param type object type
+     * @param factory copier factory
+     * @return copier
+     */
+    @SuppressWarnings("unchecked")
+    public <C extends ObjectCopier<?>> C get(Class<?> type, Function<Class<?>, C> factory) {
+        Holder holder = holders.get(type);
+        ObjectCopier<?> copier = holder.copier;
+        if (copier != null) {
+            if (hits != null) {
+                hits.increment();
+            }
+            return (C) copier;
+        }
+        return (C) create(type, holder, factory);
+    }
+
+    /**
+     * Creates copier of the type, or waits for the construction started by another thread.
+     *
+     * @param type object type
+     * @param holder holder of the copier
+     * @param factory copier factory
+     * @return copier
+     */
+    private ObjectCopier<?> create(Class<?> type, Holder holder, Function<Class<?>, ? extends ObjectCopier<?>> factory) {
+        FutureTask<ObjectCopier<?>> construction = holder.construction.get();
+        if (construction == null) {
+            FutureTask<ObjectCopier<?>> task = new FutureTask<>(() -> factory.apply(type));
+            if (holder.construction.compareAndSet(null, task)) {
+                if (misses != null) {
+                    misses.increment();
+                }
+                holder.constructor = Thread.currentThread();
+                try {
+                    task.run();
+                }
+                finally {
+                    holder.constructor = null;
+                }
+                construction = task;
+            }
+            else {
+                construction = holder.construction.get();
+                if (construction == null) {
+                    // the concurrent construction has just failed
+                    return create(type, holder, factory);
+                }
+            }
+        }
+        if (holder.constructor == Thread.currentThread()) {
+            throw new ClonerException(String.format("Recursive construction of the copier of %s.", type.getName()));
+        }
+        try {
+            ObjectCopier<?> copier = await(construction);
+            holder.copier = copier;
+            return copier;
+        }
+        catch (RuntimeException | Error e) {
+            // nothing is cached, the next call tries again
+            holder.construction.compareAndSet(construction, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the construction of the copier.
+     *
+     * @param construction construction of the copier
+     * @return copier
+     */
+    private static ObjectCopier<?> await(FutureTask<ObjectCopier<?>> construction) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return construction.get();
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new ClonerException(cause);
+                }
+            }
+        }
+        finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of lookups of the cached copiers or {@code -1} if statistics is not recorded.
+     *
+     * @return number of hits
+     */
+    public long getHitCount() {
+        return hits != null ? hits.sum() : -1;
+    }
+
+    /**
+     * Returns the number of copiers created by the cache or {@code -1} if statistics is not recorded.
+     *
+     * @return number of misses
+     */
+    public long getMissCount() {
+        return misses != null ? misses.sum() : -1;
+    }
+
+}
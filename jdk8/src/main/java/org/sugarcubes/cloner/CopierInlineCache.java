@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Inline cache of the object copiers for the single reference field. Remembers the type of the last copied value and
+ * its copier, so the copier is not resolved again while the field holds the values of the same type. If the copier is
+ * {@link ObjectCopier#NOOP} (e.g. for strings and boxed numbers), the value is returned right after the type check.
+ * After {@link #MAX_MISSES} misses the field is considered megamorphic and the cache is not used anymore.
+ *
+ * <p>The cache is used only if the context returns type based copiers (see {@link CopyContext#getTypeCopier(Object)}).
+ * The copier is cached together with the copier provider of the context, because the copiers containing the cache may
+ * be shared between the cloners with different configurations (see {@link CopierRegistry}).
+ * The cache is thread safe: the entries are immutable, the races may only cause extra misses.</p>
+ *
+ * <p>The cache does not prevent the class loaders from unloading: the provider is referenced weakly, and only the types
+ * of the same or an ancestor class loader of the field owner are cached (otherwise the field is treated as
+ * megamorphic), because the copier is held as long as the owner class.</p>
+ *
+ * @author Maxim Butov
+ */
+public final class CopierInlineCache {
+
+    /**
+     * Cache entry.
+     */
+    private static final class Entry {
+
+        /**
+         * Object type.
+         */
+        final Class<?> type;
+
+        /**
+         * Copier of the type.
+         */
+        final ObjectCopier<Object> copier;
+
+        /**
+         * Copier provider which returned the copier.
+         */
+        final WeakReference<CopierProvider> provider;
+
+        /**
+         * Creates entry.
+         *
+         * @param type object type
+         * @param copier copier of the type
+         * @param provider copier provider which returned the copier
+         */
+        Entry(Class<?> type, ObjectCopier<Object> copier, CopierProvider provider) {
+            this.type = type;
+            this.copier = copier;
+            this.provider = new WeakReference<>(provider);
+        }
+
+    }
+
+    /**
+     * Maximum number of misses before the cache is switched off.
+     */
+    private static final int MAX_MISSES = 8;
+
+    /**
+     * Entry of the megamorphic (or non-cacheable) field, never matches.
+     */
+    private static final Entry MEGAMORPHIC = new Entry(null, null, null);
+
+    /**
+     * Class loader of the field owner.
+     */
+    private final ClassLoader loader;
+
+    /**
+     * Current entry.
+     */
+    private Entry entry;
+
+    /**
+     * Number of misses.
+     */
+    private int misses;
+
+    /**
+     * Creates cache.
+     *
+     * @param owner class which declares the field
+     */
+    public CopierInlineCache(Class<?> owner) {
+        this.loader = owner.getClassLoader();
+    }
+
+    /**
+     * Copies field value.
+     *
+     * @param original original value
+     * @param context copy context
+     * @return copy of the value
+     * @throws Exception if something went wrong
+     */
+    public Object copy(Object original, CopyContext context) throws Exception {
+        if (original == null) {
+            return null;
+        }
+        Entry entry = this.entry;
+        if (entry != null && entry.type == original.getClass() && entry.provider.get() == context.getCopierProvider()) {
+            ObjectCopier<Object> copier = entry.copier;
+            return copier == ObjectCopier.NOOP ? original : context.copy(original, copier);
+        }
+        return entry != MEGAMORPHIC ? miss(original, context) : context.copy(original);
+    }
+
+    /**
+     * Resolves the copier of the value and updates the cache.
+     *
+     * @param original original value
+     * @param context copy context
+     * @return copy of the value
+     * @throws Exception if something went wrong
+     */
+    private Object miss(Object original, CopyContext context) throws Exception {
+        ObjectCopier<Object> copier = context.getTypeCopier(original);
+        // the miss of the same type in another cloner is not a sign of polymorphism
+        boolean polymorphic = entry != null && entry.type != original.getClass();
+        if (copier == null || polymorphic && ++misses > MAX_MISSES ||
+            !ReflectionUtils.isSameOrAncestorLoader(original.getClass().getClassLoader(), loader)) {
+            entry = MEGAMORPHIC;
+            return context.copy(original);
+        }
+        entry = new Entry(original.getClass(), copier, context.getCopierProvider());
+        return context.copy(original, copier);
+    }
+
+}
@@ -31,4 +31,32 @@ public interface CopierProvider {
      */
     <T> ObjectCopier<T> getCopier(T original);
 
+    /**
+     * Returns {@code true} if the copier depends only on the type of the object, i.e. the same copier is returned
+     * for all the objects of the same type. Such copiers may be cached by the caller.
+     *
+     * @return {@code true} if the copier depends only on the type of the object
+     */
+    default boolean isTypeBased() {
+        return false;
+    }
+
+    /**
+     * Creates the copier for the type in advance, so the first copying of the objects of the type is not slowed down.
+     * Does nothing by default.
+     *
+     * @param type type
+     */
+    default void prepare(Class<?> type) {
+    }
+
+    /**
+     * Returns registry of the objects which must not be copied or {@code null}.
+     *
+     * @return registry of the frozen objects or {@code null}
+     */
+    default FrozenObjectRegistry getFrozenObjects() {
+        return null;
+    }
+
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the copiers which can be shared between the cloners. The copier is registered with the key, which
+ * contains everything the copier depends on: the allocator, the field copier factory and the effective actions of the
+ * fields. The cloners with different configurations (e.g. a cloner with one more field action) reuse the copiers
+ * of all the types which are not affected by the difference.
+ *
+ * <p>The copiers are stored in {@link ClassValue} of the type, so the registry does not prevent the class from
+ * unloading.</p>
+ *
+ * <p>The registry is not used unless it is set with {@link ReflectionClonerBuilder#setCopierRegistry(CopierRegistry)}.
+ * </p>
+ *
+ * @see ReflectionClonerBuilder#setCopierRegistry(CopierRegistry)
+ *
+ * @author Maxim Butov
+ */
+public class CopierRegistry {
+
+    /**
+     * Process-wide registry.
+     */
+    public static final CopierRegistry SHARED = new CopierRegistry();
+
+    /**
+     * Copiers by type and key.
+     */
+    private final ClassValue<Map<List<Object>, ObjectCopier<?>>> copiers =
+        new ClassValue<Map<List<Object>, ObjectCopier<?>>>() {
+            @Override
+            protected Map<List<Object>, ObjectCopier<?>> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+    /**
+     * Returns the copier registered for the type with the key, or creates and registers a new one. The concurrent
+     * callers for the same type and key wait for the single construction.
+     *
+     * @param <C> copier type
+     * @param type object type
+     * @param key copier key, must contain everything (except the type) the copier depends on
+     * @param factory copier factory
+     * @return copier
+     */
+    @SuppressWarnings("unchecked")
+    public <C extends ObjectCopier<?>> C getCopier(Class<?> type, List<Object> key, Supplier<C> factory) {
+        Map<List<Object>, ObjectCopier<?>> map = copiers.get(type);
+        ObjectCopier<?> copier = map.get(key);
+        return (C) (copier != null ? copier : map.computeIfAbsent(key, k -> factory.get()));
+    }
+
+}
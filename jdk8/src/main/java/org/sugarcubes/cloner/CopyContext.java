@@ -44,6 +44,41 @@ public interface CopyContext {
      */
     <T> T copy(T original) throws Exception;
 
+    /**
+     * Same as {@link #copy(Object)}, but with the known copier, which must be obtained with
+     * {@link #getTypeCopier(Object)} for the object of the same type.
+     *
+     * @param <T> object type
+     * @param original original, not {@code null}
+     * @param copier object copier
+     * @return clone
+     * @throws Exception if something went wrong
+     */
+    default <T> T copy(T original, ObjectCopier<T> copier) throws Exception {
+        return copy(original);
+    }
+
+    /**
+     * Returns the copier provider of the context, if any.
+     *
+     * @return copier provider or {@code null}
+     */
+    default CopierProvider getCopierProvider() {
+        return null;
+    }
+
+    /**
+     * Returns the copier of the object if the copier depends only on the type of the object, so it may be cached
+     * by the caller and used with {@link #copy(Object, ObjectCopier)} for the other objects of the same type.
+     *
+     * @param <T> object type
+     * @param original original, not {@code null}
+     * @return object copier or {@code null} if the copier cannot be cached
+     */
+    default <T> ObjectCopier<T> getTypeCopier(T original) {
+        return null;
+    }
+
     /**
      * Invokes task. It can be invoked immediately or later depending on the context implementation.
      * The result of callable is ignored.
@@ -53,4 +88,33 @@ public interface CopyContext {
      */
     void thenInvoke(Callable<?> task) throws Exception;
 
+    /**
+     * Invokes the second phase of the two-phase copier ({@link TwoPhaseObjectCopier#deepCopy}). It can be invoked
+     * immediately or later depending on the context implementation, same as {@link #thenInvoke(Callable)}, but the
+     * context may avoid creating a task object.
+     *
+     * @param <T> object type
+     * @param copier two-phase copier
+     * @param original original object
+     * @param clone clone
+     * @throws Exception if something went wrong
+     */
+    default <T> void thenCopy(TwoPhaseObjectCopier<T> copier, T original, T clone) throws Exception {
+        thenInvoke(() -> {
+            copier.deepCopy(original, clone, this);
+            return null;
+        });
+    }
+
+    /**
+     * Copies the range of the elements of a large array or collection. The parallel contexts split the range into
+     * the parts copied by the different threads, the other contexts copy it immediately.
+     *
+     * @param range range of the elements
+     * @throws Exception if something went wrong
+     */
+    default void copyRange(ElementRange range) throws Exception {
+        range.copy(this);
+    }
+
 }
@@ -52,6 +52,7 @@ public interface CopyPolicy<I> {
      * @param policies list of policies
      * @return compound or single policy
      */
+    @SuppressWarnings("unchecked")
     static <I> CopyPolicy<I> compound(List<CopyPolicy<I>> policies) {
         switch (policies.size()) {
             case 0:
@@ -59,11 +60,16 @@ public interface CopyPolicy<I> {
             case 1:
                 return policies.iterator().next();
             default:
-                return input -> policies.stream()
-                    .map(p -> p.getAction(input))
-                    .filter(action -> action != CopyAction.DEFAULT)
-                    .findFirst()
-                    .orElse(CopyAction.DEFAULT);
+                CopyPolicy<I>[] array = (CopyPolicy<I>[]) policies.toArray(new CopyPolicy<?>[0]);
+                return input -> {
+                    for (CopyPolicy<I> policy : array) {
+                        CopyAction action = policy.getAction(input);
+                        if (action != CopyAction.DEFAULT) {
+                            return action;
+                        }
+                    }
+                    return CopyAction.DEFAULT;
+                };
         }
     }
 
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Range of the elements of a large array or collection, which are copied from the array of the original elements into
+ * the array of the clones (may be the same array). Like {@link java.util.Spliterator}, the range can be split into
+ * the parts, which are copied independently, possibly by the different threads. The optional completion task is invoked
+ * once after all the parts have been copied, e.g. to fill the cloned collection with the copied elements.
+ *
+ * <p>The range is not thread safe, but the parts split from it may be copied concurrently.</p>
+ *
+ * @author Maxim Butov
+ */
+public final class ElementRange {
+
+    /**
+     * Minimum number of the elements of an array or a collection to be copied as a range, and the number of
+     * the elements in the parts split from the range.
+     */
+    public static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Original elements.
+     */
+    private final Object[] originals;
+
+    /**
+     * Cloned elements.
+     */
+    private final Object[] clones;
+
+    /**
+     * Completion shared by the parts of the range, {@code null} if there is no completion task.
+     */
+    private final Completion completion;
+
+    /**
+     * Index of the first element of the range.
+     */
+    private int from;
+
+    /**
+     * Index after the last element of the range.
+     */
+    private final int to;
+
+    /**
+     * Creates the range of all the elements of the array.
+     *
+     * @param originals original elements
+     * @param clones array for the cloned elements, not shorter than the original one, may be the same array
+     * @param completion task invoked after all the elements have been copied, may be {@code null}
+     */
+    public ElementRange(Object[] originals, Object[] clones, Callable<?> completion) {
+        this(originals, clones, completion != null ? new Completion(completion, originals.length) : null, 0,
+            originals.length);
+        Check.illegalArg(clones.length < originals.length, "Array of clones is too short.");
+    }
+
+    /**
+     * Creates a part of the range.
+     *
+     * @param originals original elements
+     * @param clones cloned elements
+     * @param completion completion or {@code null}
+     * @param from index of the first element
+     * @param to index after the last element
+     */
+    private ElementRange(Object[] originals, Object[] clones, Completion completion, int from, int to) {
+        this.originals = originals;
+        this.clones = clones;
+        this.completion = completion;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Returns the number of the elements in the range.
+     *
+     * @return number of the elements
+     */
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Splits the first {@link #CHUNK_SIZE} elements off this range, if the range is larger.
+     *
+     * @return part of the range or {@code null} if the range is too small to be split
+     */
+    public ElementRange trySplit() {
+        if (size() <= CHUNK_SIZE) {
+            return null;
+        }
+        ElementRange part = new ElementRange(originals, clones, completion, from, from + CHUNK_SIZE);
+        from += CHUNK_SIZE;
+        return part;
+    }
+
+    /**
+     * Copies the elements of the range, and invokes the completion task, if this is the last copied part.
+     *
+     * @param context copy context
+     * @throws Exception if something went wrong
+     */
+    public void copy(CopyContext context) throws Exception {
+        Object[] originals = this.originals;
+        Object[] clones = this.clones;
+        for (int k = from; k < to; k++) {
+            clones[k] = context.copy(originals[k]);
+        }
+        if (completion != null) {
+            completion.complete(size());
+        }
+    }
+
+    /**
+     * Completion task and the number of the elements remaining to copy.
+     */
+    private static final class Completion {
+
+        /**
+         * Completion task.
+         */
+        private final Callable<?> task;
+
+        /**
+         * Number of the elements remaining to copy.
+         */
+        private final AtomicInteger remaining;
+
+        /**
+         * Creates completion.
+         *
+         * @param task completion task
+         * @param size number of the elements
+         */
+        Completion(Callable<?> task, int size) {
+            this.task = task;
+            this.remaining = new AtomicInteger(size);
+        }
+
+        /**
+         * Counts the copied elements, invokes the task when all the elements have been copied.
+         *
+         * @param count number of the copied elements
+         * @throws Exception if something went wrong
+         */
+        void complete(int count) throws Exception {
+            if (remaining.addAndGet(-count) == 0) {
+                task.call();
+            }
+        }
+
+    }
+
+}
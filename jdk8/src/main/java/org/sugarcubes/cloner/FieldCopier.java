@@ -15,6 +15,8 @@
  */
 package org.sugarcubes.cloner;
 
+import java.util.List;
+
 /**
  * Field copier interface.
  *
@@ -38,4 +40,27 @@ public interface FieldCopier {
      */
     void copy(Object original, Object clone, CopyContext context) throws Exception;
 
+    /**
+     * Returns compound or single field copier depending on list size.
+     * Compound field copier invokes the copiers from the list one by one.
+     *
+     * @param copiers list of field copiers
+     * @return compound or single field copier
+     */
+    static FieldCopier compound(List<FieldCopier> copiers) {
+        switch (copiers.size()) {
+            case 0:
+                return NOOP;
+            case 1:
+                return copiers.get(0);
+            default:
+                FieldCopier[] array = copiers.toArray(new FieldCopier[0]);
+                return (original, clone, context) -> {
+                    for (FieldCopier copier : array) {
+                        copier.copy(original, clone, context);
+                    }
+                };
+        }
+    }
+
 }
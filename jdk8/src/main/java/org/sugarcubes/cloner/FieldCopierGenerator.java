@@ -0,0 +1,533 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+import sun.misc.Unsafe;
+
+/**
+ * Generator of the {@link FieldCopier} classes. The generated class copies all the fields in the single straight-line
+ * method using {@link Unsafe} with constant field offsets, so the JIT compiler is able to inline every field access.
+ * The generator also produces invokers which hold a {@link MethodHandle} in a {@code static final} field, so the JIT
+ * compiler treats the handle as a constant and inlines through it.
+ *
+ * @author Maxim Butov
+ */
+public final class FieldCopierGenerator {
+
+    /**
+     * Writing action.
+     */
+    @FunctionalInterface
+    private interface WriteAction {
+
+        /**
+         * Writes data.
+         *
+         * @throws IOException never thrown for in-memory streams
+         */
+        void write() throws IOException;
+
+    }
+
+    /**
+     * Class file magic number.
+     */
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * Class file major version (Java 8).
+     */
+    private static final int VERSION = 52;
+
+    /**
+     * Access flags of the generated class: {@code ACC_PUBLIC | ACC_FINAL | ACC_SUPER}.
+     */
+    private static final int CLASS_ACCESS = 0x0031;
+
+    /**
+     * Access flags of the generated methods: {@code ACC_PUBLIC}.
+     */
+    private static final int METHOD_ACCESS = 0x0001;
+
+    /**
+     * Access flags of the static initializer: {@code ACC_STATIC}.
+     */
+    private static final int STATIC_INIT_ACCESS = 0x0008;
+
+    /**
+     * Access flags of the method handle field: {@code ACC_PRIVATE | ACC_STATIC | ACC_FINAL}.
+     */
+    private static final int HANDLE_FIELD_ACCESS = 0x001A;
+
+    /**
+     * Constant pool tags.
+     */
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    /**
+     * Opcodes.
+     */
+    private static final int ACONST_NULL = 0x01;
+    private static final int LDC2_W = 0x14;
+    private static final int ALOAD = 0x19;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int ASTORE = 0x3a;
+    private static final int RETURN = 0xb1;
+    private static final int GETSTATIC = 0xb2;
+    private static final int PUTSTATIC = 0xb3;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int INVOKEINTERFACE = 0xb9;
+
+    /**
+     * Local variable which holds {@link Unsafe} instance in the {@link FieldCopier#copy(Object, Object, CopyContext)} method.
+     */
+    private static final int UNSAFE_LOCAL = 4;
+
+    /**
+     * Maximum stack size of the {@link FieldCopier#copy(Object, Object, CopyContext)} method.
+     */
+    private static final int COPY_MAX_STACK = 9;
+
+    /**
+     * Maximum stack size of the invoker's {@link FieldCopier#copy(Object, Object, CopyContext)} method.
+     */
+    private static final int INVOKER_MAX_STACK = 4;
+
+    /**
+     * Maximum number of local variables of the invoker's {@link FieldCopier#copy(Object, Object, CopyContext)} method.
+     */
+    private static final int INVOKER_MAX_LOCALS = 4;
+
+    /**
+     * Maximum number of fields in the single generated class. Limits the size of the method code.
+     */
+    public static final int MAX_FIELDS = 1000;
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String OBJECT_DESCRIPTOR = "Ljava/lang/Object;";
+    private static final String LONG_DESCRIPTOR = "J";
+    private static final String UNSAFE_CLASS = "sun/misc/Unsafe";
+    private static final String CONTEXT_CLASS = "org/sugarcubes/cloner/CopyContext";
+    private static final String CODE_ATTRIBUTE = "Code";
+    private static final String INIT = "<init>";
+    private static final String COPY = "copy";
+    private static final String VOID_DESCRIPTOR = "()V";
+    private static final String CLINIT = "<clinit>";
+    private static final String HANDLE = "HANDLE";
+    private static final String METHOD_HANDLE_CLASS = "java/lang/invoke/MethodHandle";
+    private static final String METHOD_HANDLE_DESCRIPTOR = "L" + METHOD_HANDLE_CLASS + ";";
+    private static final String COPY_DESCRIPTOR =
+        methodDescriptor("V", OBJECT_DESCRIPTOR, OBJECT_DESCRIPTOR, "L" + CONTEXT_CLASS + ";");
+
+    /**
+     * Constant pool data.
+     */
+    private final ByteArrayOutputStream constants = new ByteArrayOutputStream();
+
+    /**
+     * Constant pool writer.
+     */
+    private final DataOutputStream constantsOut = new DataOutputStream(constants);
+
+    /**
+     * Constant pool indices by the constant keys.
+     */
+    private final Map<String, Integer> constantIndices = new HashMap<>();
+
+    /**
+     * Next constant pool index.
+     */
+    private int constantCount = 1;
+
+    /**
+     * Code of the copy method.
+     */
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+    /**
+     * Copy method code writer.
+     */
+    private final DataOutputStream codeOut = new DataOutputStream(code);
+
+    /**
+     * Creates generator.
+     */
+    private FieldCopierGenerator() {
+    }
+
+    /**
+     * Generates the class file of the field copier.
+     *
+     * @param className internal name of the class, must be in the {@code org/sugarcubes/cloner} package
+     * @param fields map (field, copy action), does not contain {@link CopyAction#SKIP} actions
+     * @return class file bytes
+     */
+    public static byte[] generate(String className, Map<Field, CopyAction> fields) {
+        Check.illegalArg(fields.size() > MAX_FIELDS, "Too many fields: %s.", fields.size());
+        FieldCopierGenerator generator = new FieldCopierGenerator();
+        try {
+            generator.generateCopyMethodCode(fields);
+            return generator.generateClass(className, COPY_MAX_STACK, UNSAFE_LOCAL + 1, null);
+        }
+        catch (IOException e) {
+            throw new ClonerException(e);
+        }
+    }
+
+    /**
+     * Generates the class file of the field copier which invokes a method handle of type
+     * {@code (Object, Object, CopyContext)void}. The handle is stored in a {@code static final} field, which is
+     * initialized with the result of the static no-arg method {@code handleSupplier} of the class {@code supplierClass}.
+     * The supplier is invoked once, during the initialization of the generated class.
+     *
+     * @param className internal name of the class, must be in the {@code org/sugarcubes/cloner} package
+     * @param supplierClass internal name of the class declaring the handle supplier
+     * @param handleSupplier name of the static method returning {@link MethodHandle}
+     * @return class file bytes
+     */
+    public static byte[] generateInvoker(String className, String supplierClass, String handleSupplier) {
+        FieldCopierGenerator generator = new FieldCopierGenerator();
+        try {
+            int handleField = generator.fieldConstant(className, HANDLE, METHOD_HANDLE_DESCRIPTOR);
+            // HANDLE = supplierClass.handleSupplier()
+            ByteArrayOutputStream staticInit = new ByteArrayOutputStream();
+            DataOutputStream staticInitOut = new DataOutputStream(staticInit);
+            staticInitOut.writeByte(INVOKESTATIC);
+            staticInitOut.writeShort(
+                generator.methodConstant(supplierClass, handleSupplier, methodDescriptor(METHOD_HANDLE_DESCRIPTOR), false));
+            staticInitOut.writeByte(PUTSTATIC);
+            staticInitOut.writeShort(handleField);
+            staticInitOut.writeByte(RETURN);
+            // HANDLE.invokeExact(original, clone, context)
+            generator.codeOut.writeByte(GETSTATIC);
+            generator.codeOut.writeShort(handleField);
+            generator.codeOut.writeByte(ALOAD_1);
+            generator.codeOut.writeByte(ALOAD_2);
+            generator.codeOut.writeByte(ALOAD_3);
+            generator.codeOut.writeByte(INVOKEVIRTUAL);
+            generator.codeOut.writeShort(generator.methodConstant(METHOD_HANDLE_CLASS, "invokeExact", COPY_DESCRIPTOR, false));
+            generator.codeOut.writeByte(RETURN);
+            return generator.generateClass(className, INVOKER_MAX_STACK, INVOKER_MAX_LOCALS, staticInit.toByteArray());
+        }
+        catch (IOException e) {
+            throw new ClonerException(e);
+        }
+    }
+
+    /**
+     * Executes write action.
+     *
+     * @param action write action
+     */
+    private static void write(WriteAction action) {
+        try {
+            action.write();
+        }
+        catch (IOException e) {
+            throw new ClonerException(e);
+        }
+    }
+
+    /**
+     * Generates class file.
+     *
+     * @param className internal class name
+     * @param copyMaxStack maximum stack size of the copy method
+     * @param copyMaxLocals maximum number of local variables of the copy method
+     * @param staticInit code of the static initializer which sets the method handle field, or {@code null} if the class
+     * has neither static initializer nor fields
+     * @return class file bytes
+     * @throws IOException never thrown
+     */
+    private byte[] generateClass(String className, int copyMaxStack, int copyMaxLocals, byte[] staticInit)
+        throws IOException {
+        int thisClass = classConstant(className);
+        int superClass = classConstant(OBJECT);
+        int fieldCopierInterface = classConstant("org/sugarcubes/cloner/FieldCopier");
+        int objectInit = methodConstant(OBJECT, INIT, VOID_DESCRIPTOR, false);
+        int initName = utf8Constant(INIT);
+        int initDescriptor = utf8Constant(VOID_DESCRIPTOR);
+        int copyName = utf8Constant(COPY);
+        int copyDescriptor = utf8Constant(COPY_DESCRIPTOR);
+        int codeAttribute = utf8Constant(CODE_ATTRIBUTE);
+        boolean hasHandle = staticInit != null;
+        int handleName = hasHandle ? utf8Constant(HANDLE) : 0;
+        int handleDescriptor = hasHandle ? utf8Constant(METHOD_HANDLE_DESCRIPTOR) : 0;
+        int clinitName = hasHandle ? utf8Constant(CLINIT) : 0;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(0);
+        out.writeShort(VERSION);
+        out.writeShort(constantCount);
+        constants.writeTo(out);
+        out.writeShort(CLASS_ACCESS);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(fieldCopierInterface);
+        if (hasHandle) {
+            out.writeShort(1);
+            out.writeShort(HANDLE_FIELD_ACCESS);
+            out.writeShort(handleName);
+            out.writeShort(handleDescriptor);
+            // no field attributes
+            out.writeShort(0);
+            out.writeShort(2 + 1);
+            writeMethod(out, STATIC_INIT_ACCESS, clinitName, initDescriptor, codeAttribute, 1, 0, staticInit);
+        }
+        else {
+            // no fields
+            out.writeShort(0);
+            out.writeShort(2);
+        }
+        writeMethod(out, METHOD_ACCESS, initName, initDescriptor, codeAttribute, 1, 1,
+            new byte[] {ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit, (byte) RETURN});
+        writeMethod(out, METHOD_ACCESS, copyName, copyDescriptor, codeAttribute, copyMaxStack, copyMaxLocals,
+            code.toByteArray());
+        // no attributes
+        out.writeShort(0);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes method with the code attribute.
+     *
+     * @param out output
+     * @param access method access flags
+     * @param name method name index
+     * @param descriptor method descriptor index
+     * @param codeAttribute code attribute name index
+     * @param maxStack maximum stack size
+     * @param maxLocals maximum number of local variables
+     * @param methodCode method code
+     * @throws IOException never thrown
+     */
+    private static void writeMethod(DataOutputStream out, int access, int name, int descriptor, int codeAttribute,
+        int maxStack, int maxLocals, byte[] methodCode) throws IOException {
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeAttribute);
+        // max_stack, max_locals, code_length, code, exception_table_length, attributes_count
+        out.writeInt(2 + 2 + 4 + methodCode.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(methodCode.length);
+        out.write(methodCode);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    /**
+     * Generates code of the {@link FieldCopier#copy(Object, Object, CopyContext)} method.
+     *
+     * @param fields map (field, copy action)
+     * @throws IOException never thrown
+     */
+    private void generateCopyMethodCode(Map<Field, CopyAction> fields) throws IOException {
+        codeOut.writeByte(INVOKESTATIC);
+        codeOut.writeShort(methodConstant("org/sugarcubes/cloner/UnsafeUtils", "getUnsafe",
+            methodDescriptor("L" + UNSAFE_CLASS + ";"), false));
+        codeOut.writeByte(ASTORE);
+        codeOut.writeByte(UNSAFE_LOCAL);
+        for (Map.Entry<Field, CopyAction> entry : fields.entrySet()) {
+            generateFieldCopy(entry.getKey(), entry.getValue());
+        }
+        codeOut.writeByte(RETURN);
+    }
+
+    /**
+     * Generates code which copies single field.
+     *
+     * @param field field
+     * @param action copy action
+     * @throws IOException never thrown
+     */
+    private void generateFieldCopy(Field field, CopyAction action) throws IOException {
+        Class<?> type = field.getType();
+        Check.illegalArg(type.isPrimitive() && action == CopyAction.NULL,
+            "Cannot apply action NULL for primitive field %s.", field);
+        String accessorSuffix = type.isPrimitive() ? capitalize(type.getName()) : "Object";
+        String descriptor = type.isPrimitive() ? primitiveDescriptor(type) : OBJECT_DESCRIPTOR;
+        int offset = longConstant(UnsafeUtils.getUnsafe().objectFieldOffset(field));
+        // unsafe.putXxx(clone, offset, ...)
+        codeOut.writeByte(ALOAD);
+        codeOut.writeByte(UNSAFE_LOCAL);
+        codeOut.writeByte(ALOAD_2);
+        codeOut.writeByte(LDC2_W);
+        codeOut.writeShort(offset);
+        if (action == CopyAction.NULL) {
+            codeOut.writeByte(ACONST_NULL);
+        }
+        else {
+            boolean deep = action == CopyAction.DEFAULT && !type.isPrimitive();
+            if (deep) {
+                codeOut.writeByte(ALOAD_3);
+            }
+            // unsafe.getXxx(original, offset)
+            codeOut.writeByte(ALOAD);
+            codeOut.writeByte(UNSAFE_LOCAL);
+            codeOut.writeByte(ALOAD_1);
+            codeOut.writeByte(LDC2_W);
+            codeOut.writeShort(offset);
+            codeOut.writeByte(INVOKEVIRTUAL);
+            codeOut.writeShort(methodConstant(UNSAFE_CLASS, "get" + accessorSuffix,
+                methodDescriptor(descriptor, OBJECT_DESCRIPTOR, LONG_DESCRIPTOR), false));
+            if (deep) {
+                // context.copy(value)
+                codeOut.writeByte(INVOKEINTERFACE);
+                codeOut.writeShort(
+                    methodConstant(CONTEXT_CLASS, COPY, methodDescriptor(OBJECT_DESCRIPTOR, OBJECT_DESCRIPTOR), true));
+                codeOut.writeByte(2);
+                codeOut.writeByte(0);
+            }
+        }
+        codeOut.writeByte(INVOKEVIRTUAL);
+        codeOut.writeShort(methodConstant(UNSAFE_CLASS, "put" + accessorSuffix,
+            methodDescriptor("V", OBJECT_DESCRIPTOR, LONG_DESCRIPTOR, descriptor), false));
+    }
+
+    /**
+     * Returns descriptor of the primitive type.
+     *
+     * @param type primitive type
+     * @return type descriptor
+     */
+    private static String primitiveDescriptor(Class<?> type) {
+        if (type == boolean.class) {
+            return "Z";
+        }
+        if (type == long.class) {
+            return LONG_DESCRIPTOR;
+        }
+        return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+    }
+
+    /**
+     * Returns method descriptor.
+     *
+     * @param returnType descriptor of the return type
+     * @param parameterTypes descriptors of the parameter types
+     * @return method descriptor
+     */
+    private static String methodDescriptor(String returnType, String... parameterTypes) {
+        return "(" + String.join("", parameterTypes) + ")" + returnType;
+    }
+
+    /**
+     * Capitalizes the first letter of the string.
+     *
+     * @param str string
+     * @return capitalized string
+     */
+    private static String capitalize(String str) {
+        return Character.toUpperCase(str.charAt(0)) + str.substring(1);
+    }
+
+    /**
+     * Adds constant to the constant pool if it was not added yet.
+     *
+     * @param key unique constant key
+     * @param size number of the constant pool entries (2 for long constants, 1 for others)
+     * @param action constant writing action
+     * @return constant index
+     */
+    private int constant(String key, int size, WriteAction action) {
+        Integer index = constantIndices.get(key);
+        if (index == null) {
+            write(action);
+            index = constantCount;
+            constantCount += size;
+            constantIndices.put(key, index);
+        }
+        return index;
+    }
+
+    private int utf8Constant(String value) {
+        return constant("utf8:" + value, 1, () -> {
+            constantsOut.writeByte(CONSTANT_UTF8);
+            constantsOut.writeUTF(value);
+        });
+    }
+
+    private int longConstant(long value) {
+        return constant("long:" + value, 2, () -> {
+            constantsOut.writeByte(CONSTANT_LONG);
+            constantsOut.writeLong(value);
+        });
+    }
+
+    private int classConstant(String name) {
+        int nameIndex = utf8Constant(name);
+        return constant("class:" + name, 1, () -> {
+            constantsOut.writeByte(CONSTANT_CLASS);
+            constantsOut.writeShort(nameIndex);
+        });
+    }
+
+    private int nameAndTypeConstant(String name, String descriptor) {
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+        return constant("nameAndType:" + name + ":" + descriptor, 1, () -> {
+            constantsOut.writeByte(CONSTANT_NAME_AND_TYPE);
+            constantsOut.writeShort(nameIndex);
+            constantsOut.writeShort(descriptorIndex);
+        });
+    }
+
+    private int fieldConstant(String owner, String name, String descriptor) {
+        int ownerIndex = classConstant(owner);
+        int nameAndTypeIndex = nameAndTypeConstant(name, descriptor);
+        return constant("field:" + owner + "." + name + ":" + descriptor, 1, () -> {
+            constantsOut.writeByte(CONSTANT_FIELDREF);
+            constantsOut.writeShort(ownerIndex);
+            constantsOut.writeShort(nameAndTypeIndex);
+        });
+    }
+
+    private int methodConstant(String owner, String name, String descriptor, boolean isInterface) {
+        int ownerIndex = classConstant(owner);
+        int nameAndTypeIndex = nameAndTypeConstant(name, descriptor);
+        return constant("method:" + owner + "." + name + descriptor, 1, () -> {
+            constantsOut.writeByte(isInterface ? CONSTANT_INTERFACE_METHODREF : CONSTANT_METHODREF);
+            constantsOut.writeShort(ownerIndex);
+            constantsOut.writeShort(nameAndTypeIndex);
+        });
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Copy context for parallel copying in {@link ForkJoinPool}.
+ *
+ * <p>Each task copies its part of the graph sequentially (depth-first) with its own {@link WorkQueue} and its own
+ * worker context, which shares the cloned objects with this context. When the queue of the task grows above the split
+ * threshold, and the tasks published by the worker thread have been taken by the other workers, the oldest half of
+ * the queue is published as a new task. The cloned objects are claimed in the shared {@link ConcurrentIdentityTable},
+ * so each object is copied by exactly one worker. The large arrays and collections are split into the parts
+ * of {@link ElementRange#CHUNK_SIZE} elements, which are queued as separate elements. The tasks are
+ * {@link CountedCompleter}s, so the completion is tracked by counting the pending tasks and not by a future per
+ * object.</p>
+ *
+ * @author Maxim Butov
+ */
+public class ForkJoinCopyContext extends AbstractConcurrentCopyContext {
+
+    /**
+     * Default split threshold.
+     */
+    public static final int DEFAULT_SPLIT_THRESHOLD = 32;
+
+    /**
+     * Fork-join pool.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Minimum number of the queued elements of the task to publish a part of them as a new task.
+     */
+    private final int splitThreshold;
+
+    /**
+     * Predefined cloned objects.
+     */
+    private final IdentityTable predefinedClones;
+
+    /**
+     * Queue of the work delayed by the caller thread.
+     */
+    private WorkQueue queue = new WorkQueue();
+
+    /**
+     * Root task of the current copying, used to stop the other tasks if one of them has failed.
+     */
+    private volatile CopyTask root;
+
+    /**
+     * Creates an instance.
+     *
+     * @param copierProvider copier provider
+     * @param predefinedClones predefined cloned objects
+     * @param pool fork-join pool
+     * @param splitThreshold minimum number of the queued elements of the task to publish a part of them as a new task
+     * @param sizeEstimator estimator of the graph size, may be {@code null}
+     */
+    public ForkJoinCopyContext(CopierProvider copierProvider, IdentityTable predefinedClones, ForkJoinPool pool,
+        int splitThreshold, GraphSizeEstimator sizeEstimator) {
+        super(copierProvider, predefinedClones, sizeEstimator, createClones(sizeEstimator));
+        Check.illegalArg(splitThreshold < 2, "Split threshold must be at least 2.");
+        this.pool = pool;
+        this.splitThreshold = splitThreshold;
+        this.predefinedClones = predefinedClones;
+    }
+
+    @Override
+    protected synchronized void visitTreeShaped(Object original) {
+        super.visitTreeShaped(original);
+    }
+
+    @Override
+    public void thenInvoke(Callable<?> task) {
+        queue.offer(task);
+    }
+
+    @Override
+    public <T> void thenCopy(TwoPhaseObjectCopier<T> copier, T original, T clone) {
+        queue.offer(copier, original, clone);
+    }
+
+    @Override
+    public void copyRange(ElementRange range) {
+        queue.offerParts(range);
+    }
+
+    @Override
+    public void complete() throws Exception {
+        if (!queue.isEmpty()) {
+            CopyTask task = new CopyTask(null, queue);
+            queue = new WorkQueue();
+            root = task;
+            pool.invoke(task);
+        }
+    }
+
+    @Override
+    public boolean reset() {
+        // not reused, the tasks of a failed copying may be still running
+        return false;
+    }
+
+    /**
+     * Task which copies the part of the graph.
+     */
+    private final class CopyTask extends CountedCompleter<Void> {
+
+        /**
+         * Serial version UID, the tasks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Queue of the task.
+         */
+        private final WorkQueue queue;
+
+        /**
+         * Creates a task.
+         *
+         * @param completer parent task or {@code null} for the root one
+         * @param queue queue of the task
+         */
+        CopyTask(CopyTask completer, WorkQueue queue) {
+            super(completer);
+            this.queue = queue;
+        }
+
+        @Override
+        public void compute() {
+            WorkQueue queue = this.queue;
+            Worker worker = new Worker(queue);
+            try {
+                while (!queue.isEmpty() && !root.isCompletedAbnormally()) {
+                    int size = queue.size();
+                    if (size >= splitThreshold && getSurplusQueuedTaskCount() <= 0) {
+                        addToPendingCount(1);
+                        new CopyTask(this, queue.split(size >> 1)).fork();
+                    }
+                    queue.invokeNext(worker, true);
+                }
+            }
+            catch (RuntimeException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                throw new ClonerException(e);
+            }
+            tryComplete();
+        }
+
+    }
+
+    /**
+     * Context of the task, which delays the work into the queue of the task and shares the cloned objects
+     * with the enclosing context.
+     */
+    private final class Worker extends AbstractConcurrentCopyContext {
+
+        /**
+         * Queue of the task.
+         */
+        private final WorkQueue queue;
+
+        /**
+         * Creates a worker context.
+         *
+         * @param queue queue of the task
+         */
+        Worker(WorkQueue queue) {
+            super(ForkJoinCopyContext.this.getCopierProvider(), predefinedClones, null,
+                ForkJoinCopyContext.this.getClones());
+            this.queue = queue;
+        }
+
+        @Override
+        protected void visitTreeShaped(Object original) {
+            ForkJoinCopyContext.this.visitTreeShaped(original);
+        }
+
+        @Override
+        public void thenInvoke(Callable<?> task) {
+            queue.offer(task);
+        }
+
+        @Override
+        public <T> void thenCopy(TwoPhaseObjectCopier<T> copier, T original, T clone) {
+            queue.offer(copier, original, clone);
+        }
+
+        @Override
+        public void copyRange(ElementRange range) {
+            queue.offerParts(range);
+        }
+
+        /**
+         * Completes the delayed work of the task in the current thread.
+         *
+         * @throws Exception if something went wrong
+         */
+        @Override
+        public void complete() throws Exception {
+            while (!queue.isEmpty()) {
+                queue.invokeNext(this, true);
+            }
+        }
+
+    }
+
+}
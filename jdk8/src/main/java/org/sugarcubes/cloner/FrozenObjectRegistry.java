@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the frozen objects. The frozen objects are never copied, the clone shares them with the original,
+ * this is the same as {@link CopyAction#ORIGINAL} action for the object, but without the cost of the object policy
+ * (see {@link ReflectionClonerBuilder#setObjectPolicy(CopyPolicy)}) for all the other objects.
+ *
+ * <p>The registry is thread safe and may be modified at any time, the changes are visible for the subsequent cloning
+ * operations. The objects are compared by identity and referenced weakly, so the registry does not prevent them from
+ * being garbage collected.</p>
+ *
+ * @see ReflectionClonerBuilder#setFrozenObjects(FrozenObjectRegistry)
+ *
+ * @author Maxim Butov
+ */
+public class FrozenObjectRegistry {
+
+    /**
+     * Set of the weak keys of the frozen objects.
+     */
+    private final Map<IdentityKey, Boolean> objects = new ConcurrentHashMap<>();
+
+    /**
+     * Queue of the cleared weak keys.
+     */
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    /**
+     * Freezes the objects.
+     *
+     * @param objects objects
+     * @return same registry instance
+     */
+    public FrozenObjectRegistry freeze(Object... objects) {
+        expunge();
+        for (Object object : objects) {
+            Check.argNotNull(object, "Object");
+            this.objects.put(new WeakKey(object, queue), Boolean.TRUE);
+        }
+        return this;
+    }
+
+    /**
+     * Unfreezes the objects.
+     *
+     * @param objects objects
+     * @return same registry instance
+     */
+    public FrozenObjectRegistry unfreeze(Object... objects) {
+        expunge();
+        for (Object object : objects) {
+            this.objects.remove(new LookupKey(object));
+        }
+        return this;
+    }
+
+    /**
+     * Returns {@code true} if the object is frozen.
+     *
+     * @param object object
+     * @return {@code true} if the object is frozen
+     */
+    public boolean isFrozen(Object object) {
+        return objects.containsKey(new LookupKey(object));
+    }
+
+    /**
+     * Returns {@code true} if there are no frozen objects.
+     *
+     * @return {@code true} if there are no frozen objects
+     */
+    public boolean isEmpty() {
+        expunge();
+        return objects.isEmpty();
+    }
+
+    /**
+     * Returns the number of the frozen objects.
+     *
+     * @return the number of the frozen objects
+     */
+    public int size() {
+        expunge();
+        return objects.size();
+    }
+
+    /**
+     * Removes the keys of the garbage collected objects.
+     */
+    private void expunge() {
+        for (Object key; (key = queue.poll()) != null; ) {
+            objects.remove(key);
+        }
+    }
+
+    /**
+     * Identity key of the object.
+     */
+    private interface IdentityKey {
+
+        /**
+         * Returns the object or {@code null} if it was garbage collected.
+         *
+         * @return the object
+         */
+        Object get();
+
+    }
+
+    /**
+     * Compares identity keys.
+     *
+     * @param key key
+     * @param obj other object
+     * @return {@code true} if the keys are equal
+     */
+    private static boolean keyEquals(IdentityKey key, Object obj) {
+        if (key == obj) {
+            return true;
+        }
+        if (!(obj instanceof IdentityKey)) {
+            return false;
+        }
+        Object object = key.get();
+        return object != null && object == ((IdentityKey) obj).get();
+    }
+
+    /**
+     * Weak identity key, stored in the map.
+     */
+    private static final class WeakKey extends WeakReference<Object> implements IdentityKey {
+
+        /**
+         * Identity hash code of the object.
+         */
+        private final int hash;
+
+        /**
+         * Creates key.
+         *
+         * @param object object
+         * @param queue reference queue
+         */
+        WeakKey(Object object, ReferenceQueue<Object> queue) {
+            super(object, queue);
+            this.hash = System.identityHashCode(object);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return keyEquals(this, obj);
+        }
+
+    }
+
+    /**
+     * Strong identity key, used for lookups.
+     */
+    private static final class LookupKey implements IdentityKey {
+
+        /**
+         * Object.
+         */
+        private final Object object;
+
+        /**
+         * Creates key.
+         *
+         * @param object object
+         */
+        LookupKey(Object object) {
+            this.object = object;
+        }
+
+        @Override
+        public Object get() {
+            return object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(object);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return keyEquals(this, obj);
+        }
+
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+/**
+ * Estimates the size of the next copied graph as the exponential moving average of the sizes of the recent graphs.
+ * It is used to presize the {@link IdentityTable} of the copy context, so large graphs do not cause repeated
+ * resizing of the table.
+ *
+ * <p>The estimator is shared by the contexts of the cloner. The concurrent updates may be lost, which only makes
+ * the estimate slightly less accurate.</p>
+ *
+ * @author Maxim Butov
+ */
+public class GraphSizeEstimator {
+
+    /**
+     * Weight of the new size is 1/2<sup>SMOOTHING_SHIFT</sup>.
+     */
+    private static final int SMOOTHING_SHIFT = 2;
+
+    /**
+     * Moving average of the graph sizes.
+     */
+    private volatile int average;
+
+    /**
+     * Returns the expected size of the next graph.
+     *
+     * @return expected number of objects
+     */
+    public int getExpectedSize() {
+        return average;
+    }
+
+    /**
+     * Records the size of the copied graph.
+     *
+     * @param size number of objects in the graph
+     */
+    public void record(int size) {
+        int average = this.average;
+        this.average = average + ((size - average) >> SMOOTHING_SHIFT);
+    }
+
+}
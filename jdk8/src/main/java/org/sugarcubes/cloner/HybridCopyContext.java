@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Copy context which invokes the tasks recursively while the recursion depth is less than the limit, and puts the deeper
+ * tasks into the queue, like {@link SequentialCopyContext} in depth-first mode. The queued tasks are invoked with
+ * the recursion again. So the shallow graphs are copied as fast as in {@link RecursiveCopyContext}, and the long chains
+ * of objects do not overflow the thread stack.
+ *
+ * @author Maxim Butov
+ */
+public class HybridCopyContext extends SequentialCopyContext {
+
+    /**
+     * Maximum recursion depth.
+     */
+    private final int maxDepth;
+
+    /**
+     * Current recursion depth.
+     */
+    private int depth;
+
+    /**
+     * Creates an instance.
+     *
+     * @param copierProvider copier provider
+     * @param predefinedClones predefined cloned objects
+     * @param maxDepth maximum recursion depth
+     * @param sizeEstimator estimator of the graph size, may be {@code null}
+     */
+    public HybridCopyContext(CopierProvider copierProvider, IdentityTable predefinedClones, int maxDepth,
+        GraphSizeEstimator sizeEstimator) {
+        super(copierProvider, predefinedClones, TraversalAlgorithm.DEPTH_FIRST, sizeEstimator);
+        Check.illegalArg(maxDepth < 0, "Recursion depth must not be negative.");
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public void thenInvoke(Callable<?> task) throws Exception {
+        if (depth < maxDepth) {
+            depth++;
+            try {
+                task.call();
+            }
+            finally {
+                depth--;
+            }
+        }
+        else {
+            super.thenInvoke(task);
+        }
+    }
+
+    @Override
+    public <T> void thenCopy(TwoPhaseObjectCopier<T> copier, T original, T clone) throws Exception {
+        if (depth < maxDepth) {
+            depth++;
+            try {
+                copier.deepCopy(original, clone, this);
+            }
+            finally {
+                depth--;
+            }
+        }
+        else {
+            super.thenCopy(copier, original, clone);
+        }
+    }
+
+}
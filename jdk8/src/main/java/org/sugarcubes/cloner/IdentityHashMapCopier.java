@@ -21,7 +21,8 @@ import java.util.Map;
 /**
  * Copier for {@link IdentityHashMap}. {@link ReflectionCopier} is not suitable for {@link IdentityHashMap} because the result's
  * {@link IdentityHashMap#table} has its entries on wrong places because clones have different identity hash codes than original
- * objects. Thus, the map has to be entirely rebuilt.
+ * objects. Thus, the map has to be entirely rebuilt. The keys and the values of a large map are copied as
+ * an {@link ElementRange}, and the clone is filled when all of them have been copied.
  *
  * @author Maxim Butov
  */
@@ -35,6 +36,21 @@ public class IdentityHashMapCopier extends TwoPhaseObjectCopier<IdentityHashMap<
     @Override
     public void deepCopy(IdentityHashMap<Object, Object> original, IdentityHashMap<Object, Object> clone, CopyContext context)
         throws Exception {
+        if (original.size() > ElementRange.CHUNK_SIZE) {
+            Object[] array = new Object[original.size() << 1];
+            int index = 0;
+            for (Map.Entry<Object, Object> entry : original.entrySet()) {
+                array[index++] = entry.getKey();
+                array[index++] = entry.getValue();
+            }
+            context.copyRange(new ElementRange(array, array, () -> {
+                for (int k = 0; k < array.length; k += 2) {
+                    clone.put(array[k], array[k + 1]);
+                }
+                return null;
+            }));
+            return;
+        }
         for (Map.Entry<Object, Object> entry : original.entrySet()) {
             clone.put(context.copy(entry.getKey()), context.copy(entry.getValue()));
         }
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Identity map of the original objects to their clones. Unlike {@link java.util.IdentityHashMap}, the table can be
+ * presized for the expected number of entries, and cleared for reuse without reallocation.
+ *
+ * <p>The table uses open addressing with linear probing, the keys and the values are interleaved in the single array,
+ * so the value is next to the key in memory. The table is at most half full. The keys must not be {@code null},
+ * the removal of the keys is not supported. The table is not thread safe.</p>
+ *
+ * @author Maxim Butov
+ */
+public final class IdentityTable {
+
+    /**
+     * Minimum capacity (number of the key-value pairs), must be a power of two.
+     */
+    private static final int MINIMUM_CAPACITY = 16;
+
+    /**
+     * Maximum capacity (number of the key-value pairs), must be a power of two.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 29;
+
+    /**
+     * Multiplier of the Fibonacci hashing (2<sup>32</sup> divided by the golden ratio).
+     */
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    /**
+     * Keys and values: the key is at even index, its value is at the next index.
+     */
+    private Object[] table;
+
+    /**
+     * Shift of the hash code to get the index of the pair, i.e. 32 minus log<sub>2</sub> of the capacity.
+     */
+    private int shift;
+
+    /**
+     * Number of the entries.
+     */
+    private int size;
+
+    /**
+     * Maximum number of the entries before resizing.
+     */
+    private int threshold;
+
+    /**
+     * Creates table with minimum capacity.
+     */
+    public IdentityTable() {
+        this(0);
+    }
+
+    /**
+     * Creates table for the expected number of entries.
+     *
+     * @param expectedSize expected number of entries
+     */
+    public IdentityTable(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Creates table with the entries of the map.
+     *
+     * @param map map
+     */
+    public IdentityTable(Map<?, ?> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    /**
+     * Returns the capacity which holds the expected number of entries without resizing.
+     *
+     * @param expectedSize expected number of entries
+     * @return capacity
+     */
+    private static int capacityFor(int expectedSize) {
+        int capacity = MINIMUM_CAPACITY;
+        while ((capacity >> 1) < expectedSize && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Allocates the array for the capacity.
+     *
+     * @param capacity capacity
+     */
+    private void allocate(int capacity) {
+        table = new Object[capacity << 1];
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        threshold = capacity >> 1;
+    }
+
+    /**
+     * Returns the array index of the key.
+     *
+     * @param key key
+     * @param shift shift of the hash code
+     * @return array index
+     */
+    private static int indexOf(Object key, int shift) {
+        return ((System.identityHashCode(key) * HASH_MULTIPLIER) >>> shift) << 1;
+    }
+
+    /**
+     * Returns the value of the key.
+     *
+     * @param key key
+     * @return value or {@code null} if the key is absent
+     */
+    public Object get(Object key) {
+        Object[] table = this.table;
+        int mask = table.length - 1;
+        for (int index = indexOf(key, shift); ; index = (index + 2) & mask) {
+            Object k = table[index];
+            if (k == key) {
+                return table[index + 1];
+            }
+            if (k == null) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Associates the value with the key.
+     *
+     * @param key key, not {@code null}
+     * @param value value
+     * @return previous value or {@code null} if the key was absent
+     */
+    public Object put(Object key, Object value) {
+        Object[] table = this.table;
+        int mask = table.length - 1;
+        int index = indexOf(key, shift);
+        for (Object k; (k = table[index]) != null; index = (index + 2) & mask) {
+            if (k == key) {
+                Object previous = table[index + 1];
+                table[index + 1] = value;
+                return previous;
+            }
+        }
+        table[index] = key;
+        table[index + 1] = value;
+        if (++size > threshold) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * Puts all the entries of the map.
+     *
+     * @param map map
+     */
+    public void putAll(Map<?, ?> map) {
+        map.forEach(this::put);
+    }
+
+    /**
+     * Doubles the capacity and rehashes the entries.
+     */
+    private void resize() {
+        Object[] oldTable = table;
+        int capacity = oldTable.length;
+        if (capacity > MAXIMUM_CAPACITY) {
+            throw new ClonerException("Too many objects in the identity table.");
+        }
+        allocate(capacity);
+        Object[] table = this.table;
+        int mask = table.length - 1;
+        for (int k = 0; k < oldTable.length; k += 2) {
+            Object key = oldTable[k];
+            if (key != null) {
+                int index = indexOf(key, shift);
+                while (table[index] != null) {
+                    index = (index + 2) & mask;
+                }
+                table[index] = key;
+                table[index + 1] = oldTable[k + 1];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the entries. The capacity is not changed.
+     */
+    public void clear() {
+        if (size != 0) {
+            Arrays.fill(table, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Removes all the entries and shrinks the table if it is more than twice as large as necessary for the expected
+     * number of entries, so the table which has grown once for a large graph does not slow down the clearing
+     * afterwards.
+     *
+     * @param expectedSize expected number of entries
+     */
+    public void clear(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if ((table.length >> 1) > (capacity << 1)) {
+            allocate(capacity);
+            size = 0;
+        }
+        else {
+            clear();
+        }
+    }
+
+}
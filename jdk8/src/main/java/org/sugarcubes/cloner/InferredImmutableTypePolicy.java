@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Type copy policy which infers deeply immutable types and returns {@link CopyAction#ORIGINAL} for them.
+ *
+ * <p>The type is known to be immutable if it has {@link ObjectCopier#NOOP} copier, or {@link CopyAction#ORIGINAL}
+ * action of the base type policy, or it is an enum. The type is inferred to be immutable if it is a final class,
+ * all its fields (including the fields of the super types) are final, the field policy does not change them
+ * (i.e. there are no {@link CopyAction#NULL} or {@link CopyAction#SKIP} fields), and all the possible types
+ * of the reference fields are immutable (see {@link ReflectionUtils#getPossibleTypes(Class)}). The fields with
+ * {@link CopyAction#ORIGINAL} action may have any type. Cyclic references are assumed to be immutable
+ * (coinductive inference).</p>
+ *
+ * <p>The types which have custom copiers (predefined, annotated with {@link TypeCopier} or {@link Copyable}),
+ * and the explicitly specified mutable types are never inferred to be immutable.</p>
+ *
+ * @author Maxim Butov
+ */
+public class InferredImmutableTypePolicy implements CopyPolicy<Class<?>> {
+
+    /**
+     * Base type policy.
+     */
+    private final CopyPolicy<Class<?>> typePolicy;
+
+    /**
+     * Field policy.
+     */
+    private final CopyPolicy<Field> fieldPolicy;
+
+    /**
+     * Predefined copiers.
+     */
+    private final Map<Class<?>, ObjectCopier<?>> copiers;
+
+    /**
+     * Types which must not be inferred to be immutable.
+     */
+    private final Set<Class<?>> mutableTypes;
+
+    /**
+     * Inference results, {@code null} if the type is not inferred yet. Stored in {@link ClassValue} in order not
+     * to prevent the classes from unloading.
+     */
+    private final ClassValue<AtomicReference<Boolean>> immutable = new ClassValue<AtomicReference<Boolean>>() {
+        @Override
+        protected AtomicReference<Boolean> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    /**
+     * Creates policy.
+     *
+     * @param typePolicy base type policy
+     * @param fieldPolicy field policy
+     * @param copiers predefined copiers
+     * @param mutableTypes types which must not be inferred to be immutable
+     */
+    public InferredImmutableTypePolicy(CopyPolicy<Class<?>> typePolicy, CopyPolicy<Field> fieldPolicy,
+        Map<Class<?>, ObjectCopier<?>> copiers, Set<Class<?>> mutableTypes) {
+        this.typePolicy = typePolicy;
+        this.fieldPolicy = fieldPolicy;
+        this.copiers = Collections.unmodifiableMap(new HashMap<>(copiers));
+        this.mutableTypes = Collections.unmodifiableSet(new HashSet<>(mutableTypes));
+    }
+
+    @Override
+    public CopyAction getAction(Class<?> type) {
+        return isImmutable(type) ? CopyAction.ORIGINAL : CopyAction.DEFAULT;
+    }
+
+    /**
+     * Returns {@code true} if the type is known or inferred to be deeply immutable.
+     *
+     * @param type type
+     * @return {@code true} if the type is immutable
+     */
+    public boolean isImmutable(Class<?> type) {
+        Boolean result = immutable.get(type).get();
+        if (result == null) {
+            Map<Class<?>, Boolean> visited = new HashMap<>();
+            result = isImmutable(type, visited);
+            if (result) {
+                // all the assumptions are proven
+                visited.forEach((t, r) -> immutable.get(t).set(r));
+            }
+            else {
+                // positive results may depend on the failed assumptions, negative ones do not
+                visited.forEach((t, r) -> {
+                    if (!r) {
+                        immutable.get(t).set(false);
+                    }
+                });
+                immutable.get(type).set(false);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Infers immutability of the type.
+     *
+     * @param type type
+     * @param visited types visited in the current inference, the types being inferred are assumed to be immutable
+     * @return {@code true} if the type is immutable
+     */
+    private boolean isImmutable(Class<?> type, Map<Class<?>, Boolean> visited) {
+        Boolean result = immutable.get(type).get();
+        if (result == null) {
+            result = visited.get(type);
+        }
+        if (result != null) {
+            return result;
+        }
+        if (isKnownImmutable(type)) {
+            visited.put(type, true);
+            return true;
+        }
+        visited.put(type, true);
+        result = isCandidate(type) && hasImmutableFields(type, visited);
+        visited.put(type, result);
+        return result;
+    }
+
+    /**
+     * Returns {@code true} if the type is known to be immutable without the inference.
+     *
+     * @param type type
+     * @return {@code true} if the type is known to be immutable
+     */
+    private boolean isKnownImmutable(Class<?> type) {
+        if (mutableTypes.contains(type)) {
+            return false;
+        }
+        ObjectCopier<?> copier = copiers.get(type);
+        if (copier != null) {
+            return copier == ObjectCopier.NOOP;
+        }
+        CopyAction action = typePolicy.getAction(type);
+        return action == CopyAction.ORIGINAL || action == CopyAction.DEFAULT && Enum.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Returns {@code true} if the immutability of the type may be inferred from its fields.
+     *
+     * @param type type
+     * @return {@code true} if the type is a candidate for inference
+     */
+    private boolean isCandidate(Class<?> type) {
+        return !mutableTypes.contains(type) && !type.isArray() && !type.isInterface() &&
+            Modifier.isFinal(type.getModifiers()) && !copiers.containsKey(type) &&
+            typePolicy.getAction(type) == CopyAction.DEFAULT && type.getDeclaredAnnotation(TypeCopier.class) == null &&
+            !Copyable.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Returns {@code true} if all the fields of the type and its super types are final, are not changed by the field
+     * policy and have immutable values.
+     *
+     * @param type type
+     * @param visited visited types
+     * @return {@code true} if the fields are immutable
+     */
+    private boolean hasImmutableFields(Class<?> type, Map<Class<?>, Boolean> visited) {
+        for (Class<?> t = type; t != null; t = t.getSuperclass()) {
+            for (Field field : t.getDeclaredFields()) {
+                if (ReflectionUtils.isNonStatic(field) && !isImmutableField(field, visited)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the field is final, is not changed by the field policy and has immutable values.
+     *
+     * @param field field
+     * @param visited visited types
+     * @return {@code true} if the field is immutable
+     */
+    private boolean isImmutableField(Field field, Map<Class<?>, Boolean> visited) {
+        if (!Modifier.isFinal(field.getModifiers())) {
+            return false;
+        }
+        CopyAction action = fieldPolicy.getAction(field);
+        if (action == CopyAction.ORIGINAL || action == CopyAction.DEFAULT && field.getType().isPrimitive()) {
+            return true;
+        }
+        if (action != CopyAction.DEFAULT) {
+            return false;
+        }
+        Set<Class<?>> types = ReflectionUtils.getPossibleTypes(field.getType());
+        if (types == null) {
+            return false;
+        }
+        for (Class<?> type : types) {
+            if (!isImmutable(type, visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
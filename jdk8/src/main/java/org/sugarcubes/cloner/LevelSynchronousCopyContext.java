@@ -0,0 +1,283 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Copy context for parallel breadth-first copying, level by level. The delayed work of the current level (the frontier)
+ * is partitioned between the threads, each thread processes its part in breadth-first order with its own worker
+ * context and collects the work of the next level. When all the threads have finished (the barrier), their work
+ * is merged into the next frontier.
+ *
+ * <p>Unlike {@link ParallelCopyContext} and {@link ForkJoinCopyContext}, there are no tasks per object or per part
+ * of the graph, only one task per thread per level, and the pending work never exceeds the width of two levels
+ * of the graph. The context suits best the wide and shallow graphs.</p>
+ *
+ * @author Maxim Butov
+ */
+public class LevelSynchronousCopyContext extends AbstractConcurrentCopyContext {
+
+    /**
+     * Minimum number of the elements of the frontier per thread.
+     */
+    private static final int MINIMUM_PARTITION_SIZE = 64;
+
+    /**
+     * Executor service.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Maximum number of the threads copying the level, including the caller thread.
+     */
+    private final int parallelism;
+
+    /**
+     * Predefined cloned objects.
+     */
+    private final IdentityTable predefinedClones;
+
+    /**
+     * Work of the current level.
+     */
+    private final WorkQueue frontier = new WorkQueue();
+
+    /**
+     * Worker contexts, created on demand.
+     */
+    private final Worker[] workers;
+
+    /**
+     * Stop flag, set when one of the threads has failed.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Creates an instance.
+     *
+     * @param copierProvider copier provider
+     * @param predefinedClones predefined cloned objects
+     * @param executor executor service, must have {@code parallelism - 1} free threads for the full parallelism
+     * @param parallelism maximum number of the threads copying the level, including the caller thread
+     * @param sizeEstimator estimator of the graph size, may be {@code null}
+     */
+    public LevelSynchronousCopyContext(CopierProvider copierProvider, IdentityTable predefinedClones,
+        ExecutorService executor, int parallelism, GraphSizeEstimator sizeEstimator) {
+        super(copierProvider, predefinedClones, sizeEstimator, createClones(sizeEstimator));
+        Check.illegalArg(parallelism < 1, "Parallelism must be positive.");
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.predefinedClones = predefinedClones;
+        this.workers = new Worker[parallelism];
+    }
+
+    @Override
+    protected synchronized void visitTreeShaped(Object original) {
+        super.visitTreeShaped(original);
+    }
+
+    @Override
+    public void thenInvoke(Callable<?> task) {
+        frontier.offer(task);
+    }
+
+    @Override
+    public <T> void thenCopy(TwoPhaseObjectCopier<T> copier, T original, T clone) {
+        frontier.offer(copier, original, clone);
+    }
+
+    @Override
+    public void copyRange(ElementRange range) {
+        frontier.offerParts(range);
+    }
+
+    @Override
+    public void complete() throws Exception {
+        WorkQueue frontier = this.frontier;
+        while (!frontier.isEmpty()) {
+            int count = Math.min(parallelism, Math.max(1, frontier.size() / MINIMUM_PARTITION_SIZE));
+            partition(count);
+            copyLevel(count);
+            for (int k = 0; k < count; k++) {
+                frontier.addAll(workers[k].next);
+            }
+        }
+    }
+
+    /**
+     * Moves the frontier into the workers in the equal parts.
+     *
+     * @param count number of the parts
+     */
+    private void partition(int count) {
+        int size = frontier.size();
+        for (int k = 0; k < count; k++) {
+            if (workers[k] == null) {
+                workers[k] = new Worker();
+            }
+            workers[k].level = frontier.split(k < count - 1 ? size / count : frontier.size());
+        }
+    }
+
+    /**
+     * Copies the level: the first part is copied by the caller thread, the others are submitted to the executor.
+     * The parts which have not been started by the executor when the caller thread has finished its own part are
+     * copied by the caller thread, so the copying does not depend on the number of the free threads of the executor
+     * (and does not hang if the caller is the only free thread of the executor). Waits for all the threads, even if one
+     * of them has failed, so no thread copies the graph after the return.
+     *
+     * @param count number of the parts
+     * @throws Exception if something went wrong
+     */
+    private void copyLevel(int count) throws Exception {
+        List<FutureTask<Void>> futures = new ArrayList<>(count - 1);
+        for (int k = 1; k < count; k++) {
+            FutureTask<Void> future = new FutureTask<>(workers[k]);
+            futures.add(future);
+            try {
+                executor.execute(future);
+            }
+            catch (RejectedExecutionException e) {
+                // copied by the caller thread
+            }
+        }
+        Throwable failure = null;
+        try {
+            workers[0].call();
+        }
+        catch (Throwable e) {
+            stopped = true;
+            failure = e;
+        }
+        boolean interrupted = false;
+        for (FutureTask<Void> future : futures) {
+            // does nothing if the part has been already started by the executor
+            future.run();
+            try {
+                future.get();
+            }
+            catch (ExecutionException e) {
+                failure = failure != null ? failure : e.getCause();
+            }
+            catch (InterruptedException e) {
+                stopped = true;
+                interrupted = true;
+                future.cancel(false);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new ClonerException("Interrupted.");
+        }
+        if (failure != null) {
+            rethrow(failure);
+        }
+    }
+
+    @Override
+    public boolean reset() {
+        // not reused, the table of the cloned objects is not cleared
+        return false;
+    }
+
+    /**
+     * Context of the thread copying a part of the level, which shares the cloned objects with the enclosing context
+     * and delays the work to the next level.
+     */
+    private final class Worker extends AbstractConcurrentCopyContext implements Callable<Void> {
+
+        /**
+         * Work of the next level.
+         */
+        private final WorkQueue next = new WorkQueue();
+
+        /**
+         * Part of the current level.
+         */
+        private WorkQueue level;
+
+        /**
+         * Creates a worker context.
+         */
+        Worker() {
+            super(LevelSynchronousCopyContext.this.getCopierProvider(), predefinedClones, null,
+                LevelSynchronousCopyContext.this.getClones());
+        }
+
+        @Override
+        protected void visitTreeShaped(Object original) {
+            LevelSynchronousCopyContext.this.visitTreeShaped(original);
+        }
+
+        @Override
+        public void thenInvoke(Callable<?> task) {
+            next.offer(task);
+        }
+
+        @Override
+        public <T> void thenCopy(TwoPhaseObjectCopier<T> copier, T original, T clone) {
+            next.offer(copier, original, clone);
+        }
+
+        @Override
+        public void copyRange(ElementRange range) {
+            next.offerParts(range);
+        }
+
+        /**
+         * Copies the part of the level.
+         *
+         * @return {@code null}
+         * @throws Exception if something went wrong
+         */
+        @Override
+        public Void call() throws Exception {
+            WorkQueue level = this.level;
+            this.level = null;
+            try {
+                while (!level.isEmpty() && !stopped) {
+                    level.invokeNext(this, false);
+                }
+            }
+            catch (Exception | Error e) {
+                stopped = true;
+                throw e;
+            }
+            return null;
+        }
+
+        /**
+         * Completes the delayed work of the worker in the current thread, level by level.
+         *
+         * @throws Exception if something went wrong
+         */
+        @Override
+        public void complete() throws Exception {
+            while (!next.isEmpty()) {
+                next.invokeNext(this, false);
+            }
+        }
+
+    }
+
+}
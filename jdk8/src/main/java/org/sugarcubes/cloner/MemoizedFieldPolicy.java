@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * Field copy policy which evaluates the underlying policy only once per field. The actions of all the non-static fields
+ * declared by a class are computed at once, so the action of a field is a lookup in a small per-class table. The
+ * underlying policy must return the same action for the same field.
+ *
+ * @author Maxim Butov
+ */
+public class MemoizedFieldPolicy implements CopyPolicy<Field> {
+
+    /**
+     * Underlying policy.
+     */
+    private final CopyPolicy<Field> policy;
+
+    /**
+     * Memoized actions of the declared fields.
+     */
+    private final ClassValue<FieldActions> actions = new ClassValue<FieldActions>() {
+        @Override
+        protected FieldActions computeValue(Class<?> type) {
+            return new FieldActions(type, policy);
+        }
+    };
+
+    /**
+     * Creates policy.
+     *
+     * @param policy underlying policy
+     */
+    public MemoizedFieldPolicy(CopyPolicy<Field> policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public CopyAction getAction(Field field) {
+        if (!ReflectionUtils.isNonStatic(field)) {
+            return policy.getAction(field);
+        }
+        return actions.get(field.getDeclaringClass()).get(field, policy);
+    }
+
+    /**
+     * Actions of the non-static fields declared by a class.
+     */
+    private static final class FieldActions {
+
+        /**
+         * Non-static declared fields.
+         */
+        private final Field[] fields;
+
+        /**
+         * Actions of the fields.
+         */
+        private final CopyAction[] actions;
+
+        /**
+         * Computes actions.
+         *
+         * @param type declaring class
+         * @param policy field policy
+         */
+        FieldActions(Class<?> type, CopyPolicy<Field> policy) {
+            this.fields = Arrays.stream(type.getDeclaredFields()).filter(ReflectionUtils::isNonStatic).toArray(Field[]::new);
+            this.actions = new CopyAction[fields.length];
+            for (int k = 0; k < fields.length; k++) {
+                actions[k] = policy.getAction(fields[k]);
+            }
+        }
+
+        /**
+         * Returns action of the field.
+         *
+         * @param field field
+         * @param policy field policy for the fields which are not found
+         * @return copy action
+         */
+        CopyAction get(Field field, CopyPolicy<Field> policy) {
+            for (int k = 0; k < fields.length; k++) {
+                if (fields[k].equals(field)) {
+                    return actions[k];
+                }
+            }
+            return policy.getAction(field);
+        }
+
+    }
+
+}
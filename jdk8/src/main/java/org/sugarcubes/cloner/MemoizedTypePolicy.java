@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+/**
+ * Type copy policy which evaluates the underlying policy only once per type. The underlying policy must return
+ * the same action for the same type.
+ *
+ * @author Maxim Butov
+ */
+public class MemoizedTypePolicy implements CopyPolicy<Class<?>> {
+
+    /**
+     * Memoized actions.
+     */
+    private final ClassValue<CopyAction> actions;
+
+    /**
+     * Creates policy.
+     *
+     * @param policy underlying policy
+     */
+    public MemoizedTypePolicy(CopyPolicy<Class<?>> policy) {
+        this.actions = new ClassValue<CopyAction>() {
+            @Override
+            protected CopyAction computeValue(Class<?> type) {
+                return policy.getAction(type);
+            }
+        };
+    }
+
+    @Override
+    public CopyAction getAction(Class<?> type) {
+        return actions.get(type);
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Field copiers factory which uses {@link MethodHandle} combinators for getting/setting field values. Does not require
+ * {@link sun.misc.Unsafe}. Every field is copied with the type-exact getter/setter handles, the type-level copier
+ * folds all the fields of the type into the single method handle. The resulting handle is stored in a
+ * {@code static final} field of a generated field copier class (see {@link FieldCopierGenerator#generateInvoker}), so
+ * the JIT compiler treats it as a constant and inlines the whole combinator tree into the copy method.
+ *
+ * @author Maxim Butov
+ */
+public final class MethodHandleFieldCopierFactory implements TypeFieldCopierFactory {
+
+    /**
+     * Trusted {@link MethodHandles.Lookup} instance.
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandlesLookupUtils.getLookup();
+
+    /**
+     * Type of the field copier handle: {@code (Object original, Object clone, CopyContext context)void}.
+     */
+    private static final MethodType COPIER_TYPE = MethodType.methodType(void.class, Object.class, Object.class,
+        CopyContext.class);
+
+    /**
+     * Handle of {@link CopierInlineCache#copy(Object, CopyContext)} with type
+     * {@code (CopierInlineCache, Object, CopyContext)Object}.
+     */
+    private static final MethodHandle CACHE_COPY = ReflectionUtils.execute(() -> LOOKUP.findVirtual(CopierInlineCache.class,
+        "copy", MethodType.methodType(Object.class, Object.class, CopyContext.class)));
+
+    /**
+     * Prefix of the generated class names.
+     */
+    private static final String CLASS_NAME_PREFIX = "org/sugarcubes/cloner/GeneratedMethodHandleCopier$";
+
+    /**
+     * Counter for the generated class names.
+     */
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    /**
+     * Method handle which is being bound to the generated class. Taken by the static initializer of the class.
+     */
+    private static final ThreadLocal<MethodHandle> PENDING_HANDLE = new ThreadLocal<>();
+
+    @Override
+    public FieldCopier getFieldCopier(Field field, CopyAction action) {
+        if (action == CopyAction.SKIP) {
+            return FieldCopier.NOOP;
+        }
+        return toFieldCopier(getHandle(field, action));
+    }
+
+    @Override
+    public FieldCopier getFieldCopier(Class<?> type, Map<Field, CopyAction> fields) {
+        if (fields.isEmpty()) {
+            return FieldCopier.NOOP;
+        }
+        List<MethodHandle> handles = fields.entrySet().stream()
+            .filter(entry -> entry.getValue() != CopyAction.SKIP)
+            .map(entry -> getHandle(entry.getKey(), entry.getValue()))
+            .collect(Collectors.toList());
+        return handles.isEmpty() ? FieldCopier.NOOP : toFieldCopier(fold(handles, 0, handles.size()));
+    }
+
+    /**
+     * Returns the field copier handle for the field and the action.
+     *
+     * @param field field
+     * @param action copy action, not {@link CopyAction#SKIP}
+     * @return method handle with type {@link #COPIER_TYPE}
+     */
+    private static MethodHandle getHandle(Field field, CopyAction action) {
+        Class<?> valueType = field.getType().isPrimitive() ? field.getType() : Object.class;
+        Check.illegalArg(valueType.isPrimitive() && action == CopyAction.NULL,
+            "Cannot apply action NULL for primitive field %s.", field);
+        // (Object original)valueType
+        MethodHandle getter = ReflectionUtils.execute(() -> LOOKUP.unreflectGetter(field))
+            .asType(MethodType.methodType(valueType, Object.class));
+        // (Object clone, valueType)void
+        MethodHandle setter = ReflectionUtils.execute(() -> LOOKUP.unreflectSetter(field))
+            .asType(MethodType.methodType(void.class, Object.class, valueType));
+        // primitive values are always copied as is
+        switch (valueType.isPrimitive() ? CopyAction.ORIGINAL : action) {
+            case NULL:
+                // (Object clone)void
+                return MethodHandles.permuteArguments(MethodHandles.insertArguments(setter, 1, (Object) null),
+                    COPIER_TYPE, 1);
+            case ORIGINAL:
+                // (Object clone, Object original)void
+                return MethodHandles.permuteArguments(MethodHandles.filterArguments(setter, 1, getter),
+                    COPIER_TYPE, 1, 0);
+            case DEFAULT:
+                // (Object original, CopyContext context)Object
+                CopierInlineCache cache = new CopierInlineCache(field.getDeclaringClass());
+                MethodHandle copy = MethodHandles.filterArguments(CACHE_COPY.bindTo(cache), 0, getter);
+                // (Object clone, Object original, CopyContext context)void
+                return MethodHandles.permuteArguments(MethodHandles.collectArguments(setter, 1, copy),
+                    COPIER_TYPE, 1, 0, 2);
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Folds the range of field copier handles into the single handle. The range is split into halves to keep the depth
+     * of the combined handle logarithmic.
+     *
+     * @param handles field copier handles
+     * @param from start index, inclusive
+     * @param to end index, exclusive
+     * @return method handle with type {@link #COPIER_TYPE}
+     */
+    private static MethodHandle fold(List<MethodHandle> handles, int from, int to) {
+        if (to - from == 1) {
+            return handles.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        return MethodHandles.foldArguments(fold(handles, middle, to), fold(handles, from, middle));
+    }
+
+    /**
+     * Binds method handle as a constant of the generated field copier class.
+     *
+     * @param handle method handle with type {@link #COPIER_TYPE}
+     * @return field copier
+     */
+    private static FieldCopier toFieldCopier(MethodHandle handle) {
+        String className = CLASS_NAME_PREFIX + COUNTER.incrementAndGet();
+        byte[] bytes = FieldCopierGenerator.generateInvoker(className,
+            MethodHandleFieldCopierFactory.class.getName().replace('.', '/'), "takePendingHandle");
+        // the class is initialized in the current thread, either on definition or when the first instance is created
+        PENDING_HANDLE.set(handle);
+        try {
+            Constructor<?> constructor = ReflectionUtils.getConstructor(ClassDefinerUtils.defineClass(bytes));
+            return (FieldCopier) ReflectionUtils.execute(constructor::newInstance);
+        }
+        finally {
+            PENDING_HANDLE.remove();
+        }
+    }
+
+    /**
+     * Returns the method handle which is being bound to the generated class. Called from the static initializer of the
+     * generated class.
+     *
+     * @return method handle
+     */
+    static MethodHandle takePendingHandle() {
+        MethodHandle handle = PENDING_HANDLE.get();
+        if (handle == null) {
+            throw new IllegalStateException("No pending method handle.");
+        }
+        return handle;
+    }
+
+}
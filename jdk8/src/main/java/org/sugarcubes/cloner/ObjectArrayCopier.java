@@ -18,7 +18,8 @@ package org.sugarcubes.cloner;
 import java.lang.reflect.Array;
 
 /**
- * Two-phase copier of an array of objects.
+ * Two-phase copier of an array of objects. The elements of a large array are copied as an {@link ElementRange}, so
+ * the parallel contexts may copy them by several threads.
  *
  * @author Maxim Butov
  */
@@ -33,6 +34,10 @@ public class ObjectArrayCopier extends TwoPhaseObjectCopier<Object[]> {
 
     @Override
     public void deepCopy(Object[] original, Object[] clone, CopyContext context) throws Exception {
+        if (original.length > ElementRange.CHUNK_SIZE) {
+            context.copyRange(new ElementRange(original, clone, null));
+            return;
+        }
         for (int k = 0, length = original.length; k < length; k++) {
             clone[k] = context.copy(original[k]);
         }
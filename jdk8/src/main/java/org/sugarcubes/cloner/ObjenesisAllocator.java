@@ -31,10 +31,11 @@ public class ObjenesisAllocator implements ObjectAllocator {
     private final Objenesis objenesis;
 
     /**
-     * Default constructor.
+     * Default constructor. The instantiators are not cached by Objenesis, because the copiers keep their own
+     * factories, and such a cache would prevent the classes from being unloaded.
      */
     public ObjenesisAllocator() {
-        this(new ObjenesisStd());
+        this(new ObjenesisStd(false));
     }
 
     /**
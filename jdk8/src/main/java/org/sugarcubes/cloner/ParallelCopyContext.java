@@ -28,7 +28,7 @@ import java.util.concurrent.Future;
  *
  * @author Maxim Butov
  */
-public class ParallelCopyContext extends AbstractCopyContext {
+public class ParallelCopyContext extends AbstractConcurrentCopyContext {
 
     /**
      * Executor service.
@@ -53,13 +53,32 @@ public class ParallelCopyContext extends AbstractCopyContext {
      * @param executor executor service
      */
     public ParallelCopyContext(CopierProvider copierProvider, Map<Object, Object> clones, ExecutorService executor) {
-        super(copierProvider, clones);
+        this(copierProvider, new IdentityTable(clones), executor, null);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param copierProvider copier provider
+     * @param predefinedClones predefined cloned objects
+     * @param executor executor service
+     * @param sizeEstimator estimator of the graph size, may be {@code null}
+     */
+    public ParallelCopyContext(CopierProvider copierProvider, IdentityTable predefinedClones, ExecutorService executor,
+        GraphSizeEstimator sizeEstimator) {
+        super(copierProvider, predefinedClones, sizeEstimator, createClones(sizeEstimator));
         this.executor = executor;
     }
 
     @Override
-    public synchronized <T> void register(T original, T clone) {
-        super.register(original, clone);
+    protected <T> ObjectCopier<T> getCopier(T original) {
+        // the front cache of the base class is not thread safe
+        return getCopierProvider().getCopier(original);
+    }
+
+    @Override
+    protected synchronized void visitTreeShaped(Object original) {
+        super.visitTreeShaped(original);
     }
 
     @Override
@@ -70,10 +89,23 @@ public class ParallelCopyContext extends AbstractCopyContext {
     }
 
     @Override
-    protected <T> T doClone(T original, ObjectCopier<T> copier) throws Exception {
-        synchronized (original) {
-            return super.doClone(original, copier);
+    public void copyRange(ElementRange range) {
+        for (ElementRange part; (part = range.trySplit()) != null; ) {
+            submitRange(part);
         }
+        submitRange(range);
+    }
+
+    /**
+     * Submits the part of the range as a separate task.
+     *
+     * @param part part of the range
+     */
+    private void submitRange(ElementRange part) {
+        thenInvoke(() -> {
+            part.copy(this);
+            return null;
+        });
     }
 
     @Override
@@ -95,6 +127,12 @@ public class ParallelCopyContext extends AbstractCopyContext {
         }
     }
 
+    @Override
+    public boolean reset() {
+        // not reused, the tasks of a failed copying may be still running
+        return false;
+    }
+
     private void cancel() {
         running = false;
         Queue<Future<?>> futures = this.futures;
@@ -103,16 +141,4 @@ public class ParallelCopyContext extends AbstractCopyContext {
         }
     }
 
-    private void rethrow(Throwable e) throws Exception {
-        try {
-            throw e;
-        }
-        catch (Error | Exception ex) {
-            throw ex;
-        }
-        catch (Throwable ex) {
-            throw new ClonerException(ex);
-        }
-    }
-
 }
@@ -1,16 +1,27 @@
 package org.sugarcubes.cloner;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collector;
-import java.util.stream.Stream;
 
 /**
  * Copy policy based on predicates.
  *
+ * <p>The predicates created with {@link Predicates#subclass(Class)} are indexed by the type, so the action for a class
+ * is found by walking the class hierarchy instead of testing all such predicates one by one. The predicates for array
+ * types are not indexed, because the hierarchy of an array class does not include the arrays of the super types of its
+ * component type.</p>
+ *
  * @see Predicates
  *
  * @author Maxim Butov
@@ -18,10 +29,19 @@ import java.util.stream.Stream;
 public class PredicatePolicy<I> extends AbstractMappedPolicy<I, Predicate<I>> {
 
     /**
-     * Collector for the stream of copy actions.
+     * Map (super type, action) of the subclass predicates for non-array types.
+     */
+    private final Map<Class<?>, CopyAction> subclassActions;
+
+    /**
+     * Other predicates.
      */
-    private static final Collector<CopyAction, ?, CopyAction> ACTION_COLLECTOR = Collector.of(ActionState::new,
-        ActionState::accumulate, ActionState::combine, state -> state.action, Collector.Characteristics.UNORDERED);
+    private final Predicate<I>[] predicates;
+
+    /**
+     * Actions of the other predicates.
+     */
+    private final CopyAction[] actions;
 
     /**
      * Creates predicate based policy.
@@ -29,7 +49,7 @@ public class PredicatePolicy<I> extends AbstractMappedPolicy<I, Predicate<I>> {
      * @param map map (predicate, action)
      */
     public PredicatePolicy(Map<Predicate<I>, CopyAction> map) {
-        super(map);
+        this(map, LinkedHashMap::new);
     }
 
     /**
@@ -38,52 +58,88 @@ public class PredicatePolicy<I> extends AbstractMappedPolicy<I, Predicate<I>> {
      * @param map map (predicate, action)
      * @param mapCopyConstructor copy constructor of map as method reference
      */
+    @SuppressWarnings("unchecked")
     public PredicatePolicy(Map<Predicate<I>, CopyAction> map,
         Function<Map<Predicate<I>, CopyAction>, Map<Predicate<I>, CopyAction>> mapCopyConstructor) {
         super(map, mapCopyConstructor);
+        Map<Class<?>, CopyAction> subclassActions = new HashMap<>();
+        List<Predicate<I>> predicates = new ArrayList<>();
+        List<CopyAction> actions = new ArrayList<>();
+        for (Map.Entry<Predicate<I>, CopyAction> entry : entrySet()) {
+            Predicate<I> predicate = entry.getKey();
+            if (!(predicate instanceof Predicates.SubclassPredicate) ||
+                ((Predicates.SubclassPredicate) predicate).type.isArray() ||
+                subclassActions.putIfAbsent(((Predicates.SubclassPredicate) predicate).type, entry.getValue()) != null) {
+                predicates.add(predicate);
+                actions.add(entry.getValue());
+            }
+        }
+        this.subclassActions = subclassActions.isEmpty() ? Collections.emptyMap() : subclassActions;
+        this.predicates = (Predicate<I>[]) predicates.toArray(new Predicate<?>[0]);
+        this.actions = actions.toArray(new CopyAction[0]);
     }
 
     @Override
     public CopyAction getAction(I input) {
-        Stream<CopyAction> actions = entrySet().stream()
-            .filter(e -> e.getKey().test(input))
-            .map(Map.Entry::getValue);
-        try {
-            return actions.collect(ACTION_COLLECTOR);
-        }
-        catch (MultipleActionException e) {
-            throw new ClonerException(String.format("Multiple actions found for %s: %s.", input, e.actions));
+        CopyAction action = CopyAction.DEFAULT;
+        if (!subclassActions.isEmpty() && input instanceof Class) {
+            action = getSubclassAction(input, (Class<?>) input);
         }
-    }
-
-    static class MultipleActionException extends IllegalStateException {
-
-        final List<CopyAction> actions;
-
-        MultipleActionException(CopyAction... actions) {
-            this.actions = Arrays.asList(actions);
+        for (int k = 0; k < predicates.length; k++) {
+            if (predicates[k].test(input)) {
+                action = merge(input, action, actions[k]);
+            }
         }
-
+        return action;
     }
 
-    static class ActionState {
-
+    /**
+     * Walks the hierarchy of the type (including self, super classes and interfaces) and returns the action of the
+     * subclass predicates.
+     *
+     * @param input input object
+     * @param type type
+     * @return copy action
+     */
+    private CopyAction getSubclassAction(I input, Class<?> type) {
         CopyAction action = CopyAction.DEFAULT;
-
-        void accumulate(CopyAction next) {
-            if (next != CopyAction.DEFAULT) {
-                if (action != CopyAction.DEFAULT) {
-                    throw new MultipleActionException(action, next);
+        Set<Class<?>> visited = new HashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(type);
+        if (type.isInterface()) {
+            queue.add(Object.class);
+        }
+        while (!queue.isEmpty()) {
+            Class<?> t = queue.poll();
+            if (visited.add(t)) {
+                action = merge(input, action, subclassActions.getOrDefault(t, CopyAction.DEFAULT));
+                if (t.getSuperclass() != null) {
+                    queue.add(t.getSuperclass());
                 }
-                action = next;
+                queue.addAll(Arrays.asList(t.getInterfaces()));
             }
         }
+        return action;
+    }
 
-        ActionState combine(ActionState other) {
-            accumulate(other.action);
-            return this;
+    /**
+     * Merges the actions of two matching predicates.
+     *
+     * @param input input object
+     * @param action current action
+     * @param next action of the next matching predicate
+     * @return merged action
+     * @throws ClonerException if both actions are not default
+     */
+    private static CopyAction merge(Object input, CopyAction action, CopyAction next) {
+        if (next == CopyAction.DEFAULT) {
+            return action;
         }
-
+        if (action != CopyAction.DEFAULT) {
+            throw new ClonerException(String.format("Multiple actions found for %s: %s.", input,
+                Arrays.asList(action, next)));
+        }
+        return next;
     }
 
 }
@@ -80,7 +80,34 @@ public class Predicates {
      * @return predicate
      */
     public static Predicate<Class<?>> subclass(Class<?> type) {
-        return type::isAssignableFrom;
+        return new SubclassPredicate(type);
+    }
+
+    /**
+     * Predicate which test a class is subclass (including self) of the type. {@link PredicatePolicy} indexes such
+     * predicates by the type instead of testing them one by one.
+     */
+    static final class SubclassPredicate implements Predicate<Class<?>> {
+
+        /**
+         * Super type.
+         */
+        final Class<?> type;
+
+        /**
+         * Creates predicate.
+         *
+         * @param type super type
+         */
+        SubclassPredicate(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean test(Class<?> t) {
+            return type.isAssignableFrom(t);
+        }
+
     }
 
     /**
@@ -32,7 +32,19 @@ public class RecursiveCopyContext extends AbstractCopyContext {
      * @param clones predefined cloned objects
      */
     public RecursiveCopyContext(CopierProvider copierProvider, Map<Object, Object> clones) {
-        super(copierProvider, clones);
+        this(copierProvider, new IdentityTable(clones), null);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param copierProvider copier provider
+     * @param predefinedClones predefined cloned objects
+     * @param sizeEstimator estimator of the graph size, may be {@code null}
+     */
+    public RecursiveCopyContext(CopierProvider copierProvider, IdentityTable predefinedClones,
+        GraphSizeEstimator sizeEstimator) {
+        super(copierProvider, predefinedClones, sizeEstimator);
     }
 
     @Override
@@ -40,6 +52,11 @@ public class RecursiveCopyContext extends AbstractCopyContext {
         task.call();
     }
 
+    @Override
+    public <T> void thenCopy(TwoPhaseObjectCopier<T> copier, T original, T clone) throws Exception {
+        copier.deepCopy(original, clone, this);
+    }
+
     @Override
     public void complete() throws Exception {
     }
@@ -39,26 +39,35 @@ import java.util.function.Supplier;
 public final class ReflectionClonerBuilder {
 
     /**
-     * JDK immutable types.
+     * JDK immutable types. Only the exact types are immutable, not their subtypes.
      */
     private static final Set<Class<?>> IMMUTABLE_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
         java.math.BigDecimal.class, java.math.BigInteger.class, Boolean.class, Byte.class,
-        Character.class, Class.class,
+        Character.class, Class.class, java.util.Currency.class,
         Double.class, java.time.Duration.class,
+        Collections.emptyList().getClass(), Collections.emptyMap().getClass(), Collections.emptySet().getClass(),
         Float.class,
         java.net.Inet4Address.class, java.net.Inet6Address.class, java.net.InetSocketAddress.class, java.time.Instant.class,
         Integer.class,
         java.time.LocalDate.class, java.time.LocalDateTime.class, java.time.LocalTime.class, Long.class,
-        java.time.MonthDay.class,
+        java.math.MathContext.class, java.time.MonthDay.class,
         java.net.NetworkInterface.class,
         java.time.OffsetDateTime.class, java.time.OffsetTime.class,
+        java.util.OptionalDouble.class, java.util.OptionalInt.class, java.util.OptionalLong.class,
         java.util.regex.Pattern.class, java.time.Period.class,
-        Short.class, String.class,
+        Short.class, StackTraceElement.class, String.class,
         java.net.URI.class, java.net.URL.class, java.util.UUID.class,
         java.time.Year.class, java.time.YearMonth.class,
         java.time.ZonedDateTime.class, java.time.ZoneOffset.class
     )));
 
+    /**
+     * JDK immutable abstract types, all their subtypes are treated as immutable if the immutability inference is enabled.
+     */
+    private static final Set<Class<?>> IMMUTABLE_SUPER_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        java.nio.charset.Charset.class, java.time.ZoneId.class
+    )));
+
     /**
      * Default copiers for well-known JDK types.
      */
@@ -88,6 +97,38 @@ public final class ReflectionClonerBuilder {
         DEFAULT_COPIERS = Collections.unmodifiableMap(defaultCopiers);
     }
 
+    /**
+     * Default maximum recursion depth for hybrid mode.
+     */
+    public static final int DEFAULT_RECURSION_DEPTH = 256;
+
+    /**
+     * Default allocator. The same instance is used by all the cloners, so they can share the copiers.
+     */
+    private static final ObjectAllocator DEFAULT_ALLOCATOR = ObjectAllocator.defaultAllocator();
+
+    /**
+     * Default field copier factory. The same instance is used by all the cloners, so they can share the copiers.
+     */
+    private static final FieldCopierFactory DEFAULT_FIELD_COPIER_FACTORY = new ReflectionFieldCopierFactory();
+
+    /**
+     * Unsafe allocator and field copier factory, created on demand.
+     */
+    private static final class UnsafeDefaults {
+
+        /**
+         * Unsafe allocator.
+         */
+        static final ObjectAllocator ALLOCATOR = new UnsafeAllocator();
+
+        /**
+         * Unsafe field copier factory.
+         */
+        static final FieldCopierFactory FIELD_COPIER_FACTORY = new UnsafeFieldCopierFactory();
+
+    }
+
     /**
      * Object allocator.
      */
@@ -109,7 +150,17 @@ public final class ReflectionClonerBuilder {
     private TraversalAlgorithm traversalAlgorithm;
 
     /**
-     * Executor service for parallel mode.
+     * Maximum recursion depth for hybrid mode.
+     */
+    private Integer recursionDepth;
+
+    /**
+     * Split threshold for parallel mode.
+     */
+    private Integer splitThreshold;
+
+    /**
+     * Executor service for parallel and level-synchronous modes.
      */
     private ExecutorService executor;
 
@@ -153,6 +204,41 @@ public final class ReflectionClonerBuilder {
      */
     private final Map<Predicate<Field>, CopyAction> fieldPredicateActions = new LinkedHashMap<>();
 
+    /**
+     * Whether immutable types must be inferred.
+     */
+    private boolean immutabilityInference;
+
+    /**
+     * Registry of the frozen objects.
+     */
+    private FrozenObjectRegistry frozenObjects;
+
+    /**
+     * Whether the objects of stateless types must be shared.
+     */
+    private boolean shareStateless;
+
+    /**
+     * Whether the whole graph is tree-shaped.
+     */
+    private boolean treeShaped;
+
+    /**
+     * Predicates of the tree-shaped types.
+     */
+    private final List<Predicate<Class<?>>> treeShapedTypes = new ArrayList<>();
+
+    /**
+     * Whether the tree shape must be verified.
+     */
+    private boolean treeShapeVerification;
+
+    /**
+     * Types which must not be treated as immutable.
+     */
+    private final Set<Class<?>> mutableTypes = new HashSet<>();
+
     /**
      * Custom copiers for types.
      */
@@ -163,12 +249,60 @@ public final class ReflectionClonerBuilder {
      */
     private final Map<Object, Object> clones = new IdentityHashMap<>();
 
+    /**
+     * Registry of the copiers shared between the cloners or {@code null} if the copiers are not shared.
+     */
+    private CopierRegistry copierRegistry;
+
+    /**
+     * Cache of the copiers.
+     */
+    private CopierCache copierCache;
+
     /**
      * Creates a builder.
      */
     public ReflectionClonerBuilder() {
     }
 
+    /**
+     * Creates a builder with the same configuration as the other builder. Useful for creating the variants of the
+     * cloner, e.g. with additional field actions. If the builder has a copier registry, then, unless the allocator or
+     * the field copier factory is changed, the cloners share the copiers of all the types which are not affected by the
+     * difference in configuration (see {@link CopierRegistry}). The copier cache is not copied, because it cannot be
+     * shared between the cloners.
+     *
+     * @param builder builder to copy configuration from
+     */
+    public ReflectionClonerBuilder(ReflectionClonerBuilder builder) {
+        this.allocator = builder.allocator;
+        this.fieldCopierFactory = builder.fieldCopierFactory;
+        this.mode = builder.mode;
+        this.traversalAlgorithm = builder.traversalAlgorithm;
+        this.recursionDepth = builder.recursionDepth;
+        this.splitThreshold = builder.splitThreshold;
+        this.executor = builder.executor;
+        this.objectPolicy = builder.objectPolicy;
+        this.objectActions.putAll(builder.objectActions);
+        this.typePolicy = builder.typePolicy;
+        this.typeActions.putAll(builder.typeActions);
+        this.typePredicateActions.putAll(builder.typePredicateActions);
+        this.fieldPolicy = builder.fieldPolicy;
+        this.fieldActions.putAll(builder.fieldActions);
+        this.fieldPredicateActions.putAll(builder.fieldPredicateActions);
+        this.immutabilityInference = builder.immutabilityInference;
+        this.frozenObjects = builder.frozenObjects;
+        this.shareStateless = builder.shareStateless;
+        this.treeShaped = builder.treeShaped;
+        this.treeShapedTypes.addAll(builder.treeShapedTypes);
+        this.treeShapeVerification = builder.treeShapeVerification;
+        this.mutableTypes.addAll(builder.mutableTypes);
+        this.copiers.clear();
+        this.copiers.putAll(builder.copiers);
+        this.clones.putAll(builder.clones);
+        this.copierRegistry = builder.copierRegistry;
+    }
+
     /**
      * Sets object allocator.
      *
@@ -201,7 +335,7 @@ public final class ReflectionClonerBuilder {
      * @return same builder instance
      */
     public ReflectionClonerBuilder setUnsafe() {
-        return setAllocator(new UnsafeAllocator()).setFieldCopierFactory(new UnsafeFieldCopierFactory());
+        return setAllocator(UnsafeDefaults.ALLOCATOR).setFieldCopierFactory(UnsafeDefaults.FIELD_COPIER_FACTORY);
     }
 
     /**
@@ -231,7 +365,39 @@ public final class ReflectionClonerBuilder {
     }
 
     /**
-     * Enables parallel mode with given executor service.
+     * Sets maximum recursion depth for hybrid mode. The default depth is {@value #DEFAULT_RECURSION_DEPTH}.
+     *
+     * @param recursionDepth maximum recursion depth
+     * @return same builder instance
+     * @see CloningMode#HYBRID
+     */
+    public ReflectionClonerBuilder setRecursionDepth(int recursionDepth) {
+        Check.illegalArg(recursionDepth < 0, "Recursion depth must not be negative.");
+        Check.isNull(this.recursionDepth, "Recursion depth already set.");
+        this.recursionDepth = recursionDepth;
+        return this;
+    }
+
+    /**
+     * Sets split threshold for parallel mode with {@link ForkJoinPool} (including the default one). Each task copies
+     * its part of the graph sequentially, and publishes a half of its pending work as a new task, when the amount
+     * of the pending work exceeds the threshold and the other workers are not busy. The lower threshold gives the better
+     * load balancing, the higher one gives the less overhead. The default threshold is
+     * {@value ForkJoinCopyContext#DEFAULT_SPLIT_THRESHOLD}.
+     *
+     * @param splitThreshold split threshold, at least 2
+     * @return same builder instance
+     * @see ForkJoinCopyContext
+     */
+    public ReflectionClonerBuilder setSplitThreshold(int splitThreshold) {
+        Check.illegalArg(splitThreshold < 2, "Split threshold must be at least 2.");
+        Check.isNull(this.splitThreshold, "Split threshold already set.");
+        this.splitThreshold = splitThreshold;
+        return this;
+    }
+
+    /**
+     * Enables parallel or level-synchronous mode with given executor service.
      *
      * @param executor executor service
      * @return same builder instance
@@ -245,7 +411,8 @@ public final class ReflectionClonerBuilder {
 
     /**
      * Sets object policy. Using object policy significantly slows down cloning process, thus,
-     * type and field policies should be used if possible.
+     * type and field policies should be used if possible. The objects which must not be copied can be registered in
+     * {@link FrozenObjectRegistry} instead.
      *
      * @param objectPolicy object policy
      * @return same builder instance
@@ -259,7 +426,8 @@ public final class ReflectionClonerBuilder {
 
     /**
      * Registers action for object. Usage of object actions significantly slows down cloning process, thus,
-     * type and field policies should be used if possible.
+     * type and field policies should be used if possible. The objects which must not be copied can be registered in
+     * {@link FrozenObjectRegistry} instead.
      *
      * @param original original object
      * @param action action
@@ -274,6 +442,51 @@ public final class ReflectionClonerBuilder {
         return this;
     }
 
+    /**
+     * Sets registry of the copiers shared between the cloners, e.g. the process-wide {@link CopierRegistry#SHARED}
+     * registry. By default, the copiers are not shared. The shared copiers also share the inline caches of their fields
+     * (see {@link CopierInlineCache}), so the registry should be shared only by the cloners which copy the same types
+     * in the same way; e.g. a cloner with an object policy may make the caches megamorphic for the other cloners.
+     *
+     * @param copierRegistry registry of the copiers
+     * @return same builder instance
+     */
+    public ReflectionClonerBuilder setCopierRegistry(CopierRegistry copierRegistry) {
+        Check.argNotNull(copierRegistry, "Copier registry");
+        Check.isNull(this.copierRegistry, "Copier registry already set.");
+        this.copierRegistry = copierRegistry;
+        return this;
+    }
+
+    /**
+     * Sets cache of the copiers, e.g. bounded or with statistics. The cache cannot be shared between the cloners.
+     * By default, the cache is unbounded. In any case, the cache does not prevent the classes from unloading.
+     *
+     * @param copierCache cache of the copiers
+     * @return same builder instance
+     */
+    public ReflectionClonerBuilder setCopierCache(CopierCache copierCache) {
+        Check.argNotNull(copierCache, "Copier cache");
+        Check.isNull(this.copierCache, "Copier cache already set.");
+        this.copierCache = copierCache;
+        return this;
+    }
+
+    /**
+     * Sets registry of the frozen objects. The frozen objects are not copied, this is the same as
+     * {@link CopyAction#ORIGINAL} object action, but the registry does not slow down copying of the other objects and
+     * can be modified after the cloner is built.
+     *
+     * @param frozenObjects registry of the frozen objects
+     * @return same builder instance
+     */
+    public ReflectionClonerBuilder setFrozenObjects(FrozenObjectRegistry frozenObjects) {
+        Check.argNotNull(frozenObjects, "Frozen objects");
+        Check.isNull(this.frozenObjects, "Frozen objects already set.");
+        this.frozenObjects = frozenObjects;
+        return this;
+    }
+
     /**
      * Sets type copy policy.
      *
@@ -334,6 +547,109 @@ public final class ReflectionClonerBuilder {
         return this;
     }
 
+    /**
+     * Enables or disables inference of deeply immutable types. The objects of the inferred immutable types are not
+     * copied. The inference also treats all the implementations of {@link java.nio.charset.Charset} and
+     * {@link java.time.ZoneId} as immutable. Disabled by default.
+     *
+     * @param immutabilityInference {@code true} to enable inference
+     * @return same builder instance
+     * @see InferredImmutableTypePolicy
+     */
+    public ReflectionClonerBuilder setImmutabilityInference(boolean immutabilityInference) {
+        this.immutabilityInference = immutabilityInference;
+        return this;
+    }
+
+    /**
+     * Enables or disables sharing of the objects of stateless types, i.e. the classes which have no instance fields.
+     * Such objects are not copied. Disabled by default.
+     *
+     * @param shareStateless {@code true} to share the objects of stateless types
+     * @return same builder instance
+     * @see StatelessTypePolicy
+     */
+    public ReflectionClonerBuilder setShareStateless(boolean shareStateless) {
+        this.shareStateless = shareStateless;
+        return this;
+    }
+
+    /**
+     * Marks the type as immutable or mutable. The objects of immutable type are not copied, this is the same as
+     * {@link CopyAction#ORIGINAL} type action. The mutable type is never treated as immutable, neither by the default
+     * configuration nor by the inference.
+     *
+     * @param type object type
+     * @param immutable {@code true} for immutable type, {@code false} for mutable
+     * @return same builder instance
+     */
+    public ReflectionClonerBuilder setImmutable(Class<?> type, boolean immutable) {
+        Check.argNotNull(type, "Type");
+        Check.illegalArg(mutableTypes.contains(type) || typeActions.containsKey(type),
+            "Action for %s already set.", type);
+        if (immutable) {
+            return setTypeAction(type, CopyAction.ORIGINAL);
+        }
+        mutableTypes.add(type);
+        if (copiers.get(type) == ObjectCopier.NOOP) {
+            copiers.remove(type);
+        }
+        return this;
+    }
+
+    /**
+     * Declares the whole graph as tree-shaped, i.e. no object is referenced twice. The cloner does not track
+     * the identity of the copied objects, so the shared objects are copied several times, and the cyclic graph is
+     * copied infinitely. Disabled by default.
+     *
+     * @param treeShaped {@code true} if the graph is tree-shaped
+     * @return same builder instance
+     * @see #setTreeShapeVerification(boolean)
+     */
+    public ReflectionClonerBuilder setTreeShaped(boolean treeShaped) {
+        this.treeShaped = treeShaped;
+        return this;
+    }
+
+    /**
+     * Declares the type as tree-shaped, i.e. its objects are never shared or cyclic. The cloner does not track
+     * the identity of such objects. The same as {@link TreeShaped} annotation.
+     *
+     * @param type object type
+     * @return same builder instance
+     */
+    public ReflectionClonerBuilder setTreeShaped(Class<?> type) {
+        Check.argNotNull(type, "Type");
+        return setTreeShaped(type::equals);
+    }
+
+    /**
+     * Declares the types matching the predicate as tree-shaped, i.e. their objects are never shared or cyclic.
+     * The cloner does not track the identity of such objects.
+     *
+     * @param typePredicate type predicate
+     * @return same builder instance
+     * @see Predicates
+     */
+    public ReflectionClonerBuilder setTreeShaped(Predicate<Class<?>> typePredicate) {
+        Check.argNotNull(typePredicate, "Type predicate");
+        treeShapedTypes.add(typePredicate);
+        return this;
+    }
+
+    /**
+     * Enables or disables verification of the tree shape: if the object of the tree-shaped type is met twice
+     * in the graph, the cloning fails with {@link ClonerException}. The verification tracks the identity of the objects,
+     * so it is intended for debugging and testing. Disabled by default.
+     *
+     * @param treeShapeVerification {@code true} to verify the tree shape
+     * @return same builder instance
+     */
+    public ReflectionClonerBuilder setTreeShapeVerification(boolean treeShapeVerification) {
+        this.treeShapeVerification = treeShapeVerification;
+        return this;
+    }
+
     /**
      * Sets field copy policy.
      *
@@ -420,7 +736,7 @@ public final class ReflectionClonerBuilder {
     }
 
     /**
-     * Registers clone for the object.
+     * Registers clone for the object. The clones registered after the cloner is built do not affect it.
      *
      * @param original original object
      * @param clone clone
@@ -465,53 +781,154 @@ public final class ReflectionClonerBuilder {
     }
 
     /**
-     * Creates an instance of the cloner on the basis of the configuration.
+     * Creates type policy.
      *
-     * @return cloner
-     */
-    public Cloner build() {
-        CopyPolicy<Object> objectPolicy;
-        if (this.objectPolicy != null || !objectActions.isEmpty()) {
-            objectPolicy = compound(this.objectPolicy, objectActions, Collections.emptyMap(), null);
+     * @param fieldPolicy field policy
+     * @return type policy
+     */
+    private CopyPolicy<Class<?>> createTypePolicy(CopyPolicy<Field> fieldPolicy) {
+        Set<Class<?>> mutableTypes = new HashSet<>(this.mutableTypes);
+        List<CopyPolicy<Class<?>>> defaultPolicies = new ArrayList<>();
+        defaultPolicies.add(new AnnotatedTypeCopyPolicy());
+        if (immutabilityInference) {
+            defaultPolicies.add(type -> !mutableTypes.contains(type) &&
+                IMMUTABLE_SUPER_TYPES.stream().anyMatch(superType -> superType.isAssignableFrom(type)) ?
+                CopyAction.ORIGINAL : CopyAction.DEFAULT);
         }
-        else {
-            objectPolicy = null;
+        if (shareStateless) {
+            CopyPolicy<Class<?>> statelessPolicy = new StatelessTypePolicy();
+            defaultPolicies.add(type -> !mutableTypes.contains(type) ? statelessPolicy.getAction(type) : CopyAction.DEFAULT);
         }
-
+        // memoized by the copier provider
         CopyPolicy<Class<?>> typePolicy = compound(this.typePolicy, typeActions, typePredicateActions,
-            new AnnotatedTypeCopyPolicy());
-
-        CopyPolicy<Field> fieldPolicy = compound(this.fieldPolicy, fieldActions, fieldPredicateActions,
-            new AnnotatedFieldCopyPolicy());
+            CopyPolicy.compound(defaultPolicies));
+        if (immutabilityInference) {
+            CopyPolicy<Class<?>> inferencePolicy =
+                new InferredImmutableTypePolicy(typePolicy, fieldPolicy, copiers, mutableTypes);
+            typePolicy = CopyPolicy.compound(Arrays.asList(typePolicy, inferencePolicy));
+        }
+        return typePolicy;
+    }
 
-        ObjectAllocator allocator = createIfNull(this.allocator, ObjectAllocator::defaultAllocator);
-        FieldCopierFactory fieldCopierFactory = createIfNull(this.fieldCopierFactory, ReflectionFieldCopierFactory::new);
-        ReflectionCopierProvider provider =
-            new ReflectionCopierProvider(objectPolicy, typePolicy, fieldPolicy, allocator, copiers, fieldCopierFactory);
+    /**
+     * Creates tree-shaped types.
+     *
+     * @return tree-shaped types
+     */
+    private TreeShapedTypes createTreeShapedTypes() {
+        List<Predicate<Class<?>>> predicates = new ArrayList<>(treeShapedTypes);
+        Predicate<Class<?>> predicate =
+            treeShaped ? type -> true : type -> predicates.stream().anyMatch(p -> p.test(type));
+        return new TreeShapedTypes(predicate, treeShapeVerification);
+    }
 
-        Supplier<? extends AbstractCopyContext> contextSupplier;
+    /**
+     * Creates the supplier of the copy contexts for the cloning mode.
+     *
+     * @param provider copier provider
+     * @return context supplier
+     */
+    private Supplier<? extends AbstractCopyContext> createContextSupplier(CopierProvider provider) {
+        IdentityTable clones = new IdentityTable(this.clones);
+        GraphSizeEstimator sizeEstimator = new GraphSizeEstimator();
         CloningMode mode = this.mode != null ? this.mode : CloningMode.SEQUENTIAL;
         switch (mode) {
             case RECURSIVE:
                 Check.isNull(this.traversalAlgorithm, "Traversal algorithm must be null for recursive mode.");
                 Check.isNull(this.executor, "Executor must be null for recursive mode.");
-                contextSupplier = () -> new RecursiveCopyContext(provider, clones);
-                break;
+                Check.isNull(this.splitThreshold, "Split threshold must be null for recursive mode.");
+                Check.isNull(this.recursionDepth, "Recursion depth must be null for recursive mode.");
+                return () -> new RecursiveCopyContext(provider, clones, sizeEstimator);
             case SEQUENTIAL:
                 Check.isNull(this.executor, "Executor must be null for sequential mode.");
+                Check.isNull(this.splitThreshold, "Split threshold must be null for sequential mode.");
+                Check.isNull(this.recursionDepth, "Recursion depth must be null for sequential mode.");
                 TraversalAlgorithm traversalAlgorithm =
                     this.traversalAlgorithm != null ? this.traversalAlgorithm : TraversalAlgorithm.DEPTH_FIRST;
-                contextSupplier = () -> new SequentialCopyContext(provider, clones, traversalAlgorithm);
-                break;
+                return () -> new SequentialCopyContext(provider, clones, traversalAlgorithm, sizeEstimator);
             case PARALLEL:
                 Check.isNull(this.traversalAlgorithm, "Traversal algorithm must be null for parallel mode.");
-                ExecutorService executor = createIfNull(this.executor, ForkJoinPool::commonPool);
-                contextSupplier = () -> new ParallelCopyContext(provider, clones, executor);
-                break;
+                Check.isNull(this.recursionDepth, "Recursion depth must be null for parallel mode.");
+                return createParallelContextSupplier(provider, clones, sizeEstimator);
+            case HYBRID:
+                Check.isNull(this.traversalAlgorithm, "Traversal algorithm must be null for hybrid mode.");
+                Check.isNull(this.executor, "Executor must be null for hybrid mode.");
+                Check.isNull(this.splitThreshold, "Split threshold must be null for hybrid mode.");
+                int recursionDepth = this.recursionDepth != null ? this.recursionDepth : DEFAULT_RECURSION_DEPTH;
+                return () -> new HybridCopyContext(provider, clones, recursionDepth, sizeEstimator);
+            case LEVEL_SYNCHRONOUS:
+                Check.isNull(this.traversalAlgorithm, "Traversal algorithm must be null for level-synchronous mode.");
+                Check.isNull(this.splitThreshold, "Split threshold must be null for level-synchronous mode.");
+                Check.isNull(this.recursionDepth, "Recursion depth must be null for level-synchronous mode.");
+                return createLevelSynchronousContextSupplier(provider, clones, sizeEstimator);
             default:
                 throw new IllegalStateException();
         }
-        return new ClonerImpl(contextSupplier);
+    }
+
+    /**
+     * Creates the supplier of the copy contexts for parallel mode.
+     *
+     * @param provider copier provider
+     * @param clones predefined cloned objects
+     * @param sizeEstimator estimator of the graph size
+     * @return context supplier
+     */
+    private Supplier<? extends AbstractCopyContext> createParallelContextSupplier(CopierProvider provider,
+        IdentityTable clones, GraphSizeEstimator sizeEstimator) {
+        ExecutorService executor = createIfNull(this.executor, ForkJoinPool::commonPool);
+        if (executor instanceof ForkJoinPool) {
+            int splitThreshold = this.splitThreshold != null ? this.splitThreshold :
+                ForkJoinCopyContext.DEFAULT_SPLIT_THRESHOLD;
+            return () -> new ForkJoinCopyContext(provider, clones, (ForkJoinPool) executor, splitThreshold, sizeEstimator);
+        }
+        Check.isNull(this.splitThreshold, "Split threshold must be null for non fork-join executor.");
+        return () -> new ParallelCopyContext(provider, clones, executor, sizeEstimator);
+    }
+
+    /**
+     * Creates the supplier of the copy contexts for level-synchronous mode. The number of the threads copying a level
+     * is the parallelism of {@link ForkJoinPool} plus the caller thread, or the number of the processors for
+     * the other executors.
+     *
+     * @param provider copier provider
+     * @param clones predefined cloned objects
+     * @param sizeEstimator estimator of the graph size
+     * @return context supplier
+     */
+    private Supplier<? extends AbstractCopyContext> createLevelSynchronousContextSupplier(CopierProvider provider,
+        IdentityTable clones, GraphSizeEstimator sizeEstimator) {
+        ExecutorService executor = createIfNull(this.executor, ForkJoinPool::commonPool);
+        int parallelism = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism() + 1 :
+            Runtime.getRuntime().availableProcessors();
+        return () -> new LevelSynchronousCopyContext(provider, clones, executor, parallelism, sizeEstimator);
+    }
+
+    /**
+     * Creates an instance of the cloner on the basis of the configuration.
+     *
+     * @return cloner
+     */
+    public Cloner build() {
+        CopyPolicy<Object> objectPolicy;
+        if (this.objectPolicy != null || !objectActions.isEmpty()) {
+            objectPolicy = compound(this.objectPolicy, objectActions, Collections.emptyMap(), null);
+        }
+        else {
+            objectPolicy = null;
+        }
+
+        CopyPolicy<Field> fieldPolicy = compound(this.fieldPolicy, fieldActions, fieldPredicateActions,
+            new AnnotatedFieldCopyPolicy());
+
+        CopyPolicy<Class<?>> typePolicy = createTypePolicy(fieldPolicy);
+
+        ObjectAllocator allocator = createIfNull(this.allocator, () -> DEFAULT_ALLOCATOR);
+        FieldCopierFactory fieldCopierFactory = createIfNull(this.fieldCopierFactory, () -> DEFAULT_FIELD_COPIER_FACTORY);
+        ReflectionCopierProvider provider = new ReflectionCopierProvider(objectPolicy, typePolicy, fieldPolicy,
+            allocator, copiers, fieldCopierFactory, frozenObjects, copierRegistry, copierCache, createTreeShapedTypes());
+
+        return new ClonerImpl(provider, createContextSupplier(provider));
     }
 
 }
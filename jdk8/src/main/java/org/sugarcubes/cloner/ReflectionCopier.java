@@ -16,7 +16,11 @@
 package org.sugarcubes.cloner;
 
 import java.lang.reflect.Field;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Copier which creates object with {@link #factory}, when copying, enumerates fields,
@@ -63,6 +67,49 @@ public class ReflectionCopier<T> extends TwoPhaseObjectCopier<T> {
             .toArray(FieldCopier[]::new);
     }
 
+    /**
+     * Creates reflection copier which copies the fields of the type and all its super types with the single field copier.
+     *
+     * @param policy copy policy
+     * @param allocator object allocator
+     * @param type object type
+     * @param fieldCopierFactory type field copier factory
+     */
+    public ReflectionCopier(CopyPolicy<Field> policy, ObjectAllocator allocator, Class<T> type,
+        TypeFieldCopierFactory fieldCopierFactory) {
+        this.factory = allocator.getFactory(type);
+        this.parent = null;
+        Map<Field, CopyAction> fields = getFieldActions(policy, type);
+        FieldCopier fieldCopier = fields.isEmpty() ? FieldCopier.NOOP : fieldCopierFactory.getFieldCopier(type, fields);
+        this.fieldCopiers = fieldCopier != FieldCopier.NOOP ? new FieldCopier[] {fieldCopier} : new FieldCopier[0];
+    }
+
+    /**
+     * Returns actions for the non-static fields of the type and all its super types, except {@link CopyAction#SKIP}.
+     * The fields of the super types go first.
+     *
+     * @param policy copy policy
+     * @param type object type
+     * @return map (field, copy action)
+     */
+    static Map<Field, CopyAction> getFieldActions(CopyPolicy<Field> policy, Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> t = type; t != null; t = t.getSuperclass()) {
+            hierarchy.push(t);
+        }
+        Map<Field, CopyAction> fields = new LinkedHashMap<>();
+        hierarchy.forEach(t -> Arrays.stream(t.getDeclaredFields())
+            .filter(ReflectionUtils::isNonStatic)
+            .forEach(field -> {
+                CopyAction action = policy.getAction(field);
+                if (action != CopyAction.SKIP) {
+                    fields.put(field, action);
+                }
+            })
+        );
+        return fields;
+    }
+
     @Override
     public T allocate(T original) throws Exception {
         return factory.newInstance();
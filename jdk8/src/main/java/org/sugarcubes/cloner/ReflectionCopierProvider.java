@@ -18,8 +18,14 @@ package org.sugarcubes.cloner;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import java.util.function.Supplier;
 
 /**
@@ -54,18 +60,39 @@ public class ReflectionCopierProvider implements CopierProvider {
      */
     private final FieldCopierFactory fieldCopierFactory;
 
+    /**
+     * Predefined copiers.
+     */
+    private final Map<Class<?>, ObjectCopier<?>> predefinedCopiers;
+
+    /**
+     * Registry of the frozen objects or {@code null}.
+     */
+    private final FrozenObjectRegistry frozenObjects;
+
+    /**
+     * Registry of the copiers shared with the other providers or {@code null}.
+     */
+    private final CopierRegistry copierRegistry;
+
     /**
      * Cache of copiers.
      */
-    private final ConcurrentLazyCache<Class<?>, ObjectCopier<?>> copiers = new ConcurrentLazyCache<>(this::findCopier);
+    private final CopierCache copiers;
+
+    /**
+     * Tree-shaped types.
+     */
+    private final TreeShapedTypes treeShapedTypes;
 
     /**
-     * Cache of reflection copiers.
+     * Cache of reflection copiers of the super types, used if the field copier factory is not type based.
      */
-    private final Map<Class<?>, ReflectionCopier<?>> reflectionCopiers = new ConcurrentHashMap<>();
+    private final CopierCache reflectionCopiers = new CopierCache();
 
     /**
-     * Constructor.
+     * Constructor. The type and field policies are evaluated only once per type and field, see
+     * {@link MemoizedTypePolicy} and {@link MemoizedFieldPolicy}.
      *
      * @param objectPolicy object policy
      * @param typePolicy type policy
@@ -77,21 +104,80 @@ public class ReflectionCopierProvider implements CopierProvider {
     public ReflectionCopierProvider(CopyPolicy<Object> objectPolicy, CopyPolicy<Class<?>> typePolicy,
         CopyPolicy<Field> fieldPolicy, ObjectAllocator allocator, Map<Class<?>, ObjectCopier<?>> copiers,
         FieldCopierFactory fieldCopierFactory) {
+        this(objectPolicy, typePolicy, fieldPolicy, allocator, copiers, fieldCopierFactory, null, null, null, null);
+    }
+
+    /**
+     * Constructor. The type and field policies are evaluated only once per type and field, see
+     * {@link MemoizedTypePolicy} and {@link MemoizedFieldPolicy}.
+     *
+     * @param objectPolicy object policy
+     * @param typePolicy type policy
+     * @param fieldPolicy field policy
+     * @param allocator object allocator
+     * @param copiers predefined copiers
+     * @param fieldCopierFactory field copier factory
+     * @param frozenObjects registry of the frozen objects or {@code null}
+     * @param copierRegistry registry of the copiers shared with the other providers or {@code null}
+     * @param copierCache cache of the copiers, must not be used by the other providers, or {@code null}
+     * @param treeShapedTypes tree-shaped types or {@code null} for the annotated types only
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public ReflectionCopierProvider(CopyPolicy<Object> objectPolicy, CopyPolicy<Class<?>> typePolicy,
+        CopyPolicy<Field> fieldPolicy, ObjectAllocator allocator, Map<Class<?>, ObjectCopier<?>> copiers,
+        FieldCopierFactory fieldCopierFactory, FrozenObjectRegistry frozenObjects, CopierRegistry copierRegistry,
+        CopierCache copierCache, TreeShapedTypes treeShapedTypes) {
         this.objectPolicy = objectPolicy;
-        this.typePolicy = typePolicy;
-        this.fieldPolicy = fieldPolicy;
+        this.typePolicy = new MemoizedTypePolicy(typePolicy);
+        this.fieldPolicy = new MemoizedFieldPolicy(objectPolicy == null ?
+            field -> resolveFieldAction(field, fieldPolicy.getAction(field)) : fieldPolicy);
         this.allocator = allocator;
         this.fieldCopierFactory = fieldCopierFactory;
-        this.copiers.putAll(copiers);
+        this.predefinedCopiers = new HashMap<>(copiers);
+        this.frozenObjects = frozenObjects;
+        this.copierRegistry = copierRegistry;
+        this.copiers = copierCache != null ? copierCache.bind() : new CopierCache();
+        this.treeShapedTypes = treeShapedTypes != null ? treeShapedTypes : new TreeShapedTypes(type -> false, false);
+    }
+
+    @Override
+    public boolean isTypeBased() {
+        return objectPolicy == null;
+    }
+
+    @Override
+    public FrozenObjectRegistry getFrozenObjects() {
+        return frozenObjects;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> ObjectCopier<T> getCopier(T original) {
         if (objectPolicy != null) {
-            return (ObjectCopier<T>) processAction(objectPolicy.getAction(original), () -> copiers.get(original.getClass()));
+            return (ObjectCopier<T>) processAction(objectPolicy.getAction(original), () -> getTypeCopier(original.getClass()));
+        }
+        return (ObjectCopier<T>) getTypeCopier(original.getClass());
+    }
+
+    @Override
+    public void prepare(Class<?> type) {
+        if (type.isArray() || !type.isPrimitive() && !Modifier.isAbstract(type.getModifiers())) {
+            getTypeCopier(type);
         }
-        return (ObjectCopier<T>) copiers.get(original.getClass());
+    }
+
+    /**
+     * Returns copier of the type, predefined or created. The copiers of the tree-shaped types are wrapped into
+     * {@link TreeShapedCopier}.
+     *
+     * @param type object type
+     * @return copier
+     */
+    private ObjectCopier<?> getTypeCopier(Class<?> type) {
+        return copiers.get(type, t -> {
+            ObjectCopier<?> copier = predefinedCopiers.get(t);
+            return treeShapedTypes.wrap(t, copier != null ? copier : findCopier(t));
+        });
     }
 
     /**
@@ -104,6 +190,64 @@ public class ReflectionCopierProvider implements CopierProvider {
         return processAction(typePolicy.getAction(type), () -> findCopierForType(type));
     }
 
+    /**
+     * Resolves {@link CopyAction#DEFAULT} action of the reference field when the copiers are built, if all the possible
+     * runtime types of the field value are known from the declared type (see {@link ReflectionUtils#getPossibleTypes})
+     * and all of them are copied in the same trivial way. Such fields are copied as {@link CopyAction#ORIGINAL} or
+     * {@link CopyAction#NULL} without resolving the copier of the value. Applicable only if the copier depends only on
+     * the type of the object, i.e. there is no object policy.
+     *
+     * <p>Only the trivial copiers are folded into the field action. The fields of the closed types with non-trivial
+     * copiers (e.g. custom copiers of final classes or primitive arrays) keep {@link CopyAction#DEFAULT}: their copier is
+     * not bound when the field copier is built, but resolved on the first copied value and then held by the inline cache
+     * of the field (see {@link CopierInlineCache}), which stays monomorphic for such fields.</p>
+     *
+     * @param field field
+     * @param action action of the field policy
+     * @return resolved action
+     */
+    private CopyAction resolveFieldAction(Field field, CopyAction action) {
+        if (action != CopyAction.DEFAULT || field.getType().isPrimitive()) {
+            return action;
+        }
+        Set<Class<?>> types = ReflectionUtils.getPossibleTypes(field.getType());
+        if (types == null || types.isEmpty()) {
+            return action;
+        }
+        CopyAction resolved = null;
+        for (Class<?> type : types) {
+            CopyAction typeAction = getTrivialAction(type);
+            if (typeAction == CopyAction.DEFAULT || resolved != null && resolved != typeAction) {
+                return CopyAction.DEFAULT;
+            }
+            resolved = typeAction;
+        }
+        return resolved;
+    }
+
+    /**
+     * Returns the action which is applied to the objects of the type without resolving the copier:
+     * {@link CopyAction#ORIGINAL}, {@link CopyAction#NULL} or {@link CopyAction#DEFAULT} for the non-trivial copiers.
+     * Must be consistent with {@link #findCopier(Class)}.
+     *
+     * @param type object type
+     * @return copy action
+     */
+    private CopyAction getTrivialAction(Class<?> type) {
+        ObjectCopier<?> copier = predefinedCopiers.get(type);
+        if (copier == ObjectCopier.NOOP) {
+            return CopyAction.ORIGINAL;
+        }
+        if (copier == ObjectCopier.NULL) {
+            return CopyAction.NULL;
+        }
+        if (copier != null) {
+            return CopyAction.DEFAULT;
+        }
+        CopyAction action = typePolicy.getAction(type);
+        return action == CopyAction.DEFAULT && Enum.class.isAssignableFrom(type) ? CopyAction.ORIGINAL : action;
+    }
+
     /**
      * Object copier for {@link CopyAction#NULL} or {@link CopyAction#ORIGINAL} can be returned instantly. For the
      * {@link CopyAction#DEFAULT} action #defaultCopierSupplier will be called.
@@ -134,7 +278,8 @@ public class ReflectionCopierProvider implements CopierProvider {
      * @return object copier
      */
     private ObjectCopier<?> findCopierForType(Class<?> type) {
-        if (type.isEnum()) {
+        if (Enum.class.isAssignableFrom(type)) {
+            // includes enum constants with bodies
             return ObjectCopier.NOOP;
         }
         if (type.isArray()) {
@@ -156,9 +301,66 @@ public class ReflectionCopierProvider implements CopierProvider {
         if (Copyable.class.isAssignableFrom(type)) {
             return ObjectCopier.COPYABLE;
         }
+        if (Cloneable.class.isAssignableFrom(type)) {
+            return findCloneableCopier(type);
+        }
         return findReflectionCopier(type);
     }
 
+    /**
+     * Returns {@link CloneableCopier} for the cloneable type or {@link ReflectionCopier} if the type cannot be
+     * copied with {@link Object#clone()} because of the field policy.
+     *
+     * @param type cloneable type
+     * @return copier instance
+     */
+    private ObjectCopier<?> findCloneableCopier(Class<?> type) {
+        Map<Field, CopyAction> fields = CloneableCopier.getPatchActions(fieldPolicy, type);
+        if (fields == null) {
+            return findReflectionCopier(type);
+        }
+        return share(type, Arrays.asList(CloneableCopier.class, fieldCopierFactory, fields),
+            () -> new CloneableCopier<>(type, fields, fieldCopierFactory));
+    }
+
+    /**
+     * Returns the copier from the copier registry, if any, or creates a new one.
+     *
+     * @param <C> copier type
+     * @param type object type
+     * @param key copier key, see {@link CopierRegistry#getCopier(Class, List, Supplier)}
+     * @param factory copier factory
+     * @return copier
+     */
+    private <C extends ObjectCopier<?>> C share(Class<?> type, List<Object> key, Supplier<C> factory) {
+        return copierRegistry != null ? copierRegistry.getCopier(type, key, factory) : factory.get();
+    }
+
+    /**
+     * Returns the key of the reflection copier for the copier registry.
+     *
+     * @param type object type
+     * @return copier key
+     */
+    private List<Object> getReflectionCopierKey(Class<?> type) {
+        List<Object> key = new ArrayList<>();
+        key.add(ReflectionCopier.class);
+        key.add(allocator);
+        key.add(fieldCopierFactory);
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> t = type; t != null; t = t.getSuperclass()) {
+            hierarchy.push(t);
+        }
+        for (Class<?> t : hierarchy) {
+            for (Field field : t.getDeclaredFields()) {
+                if (ReflectionUtils.isNonStatic(field)) {
+                    key.add(fieldPolicy.getAction(field));
+                }
+            }
+        }
+        return key;
+    }
+
     /**
      * Creates an instance of object copier on the basis of annotation properties.
      *
@@ -178,14 +380,16 @@ public class ReflectionCopierProvider implements CopierProvider {
      * @return copier instance
      */
     private ReflectionCopier<?> findReflectionCopier(Class<?> type) {
-        ReflectionCopier<?> copier = reflectionCopiers.get(type);
-        if (copier == null) {
-            Class<?> superType = type.getSuperclass();
-            ReflectionCopier<?> parent = superType != null ? findReflectionCopier(superType) : null;
-            copier = new ReflectionCopier<>(fieldPolicy, allocator, type, fieldCopierFactory, parent);
-            reflectionCopiers.put(type, copier);
+        if (fieldCopierFactory instanceof TypeFieldCopierFactory) {
+            // the whole hierarchy is copied with single field copier, parent copiers are not needed
+            return share(type, getReflectionCopierKey(type),
+                () -> new ReflectionCopier<>(fieldPolicy, allocator, type, (TypeFieldCopierFactory) fieldCopierFactory));
         }
-        return copier;
+        return reflectionCopiers.get(type, t -> share(t, getReflectionCopierKey(t), () -> {
+            Class<?> superType = t.getSuperclass();
+            ReflectionCopier<?> parent = superType != null ? findReflectionCopier(superType) : null;
+            return new ReflectionCopier<>(fieldPolicy, allocator, t, fieldCopierFactory, parent);
+        }));
     }
 
 }
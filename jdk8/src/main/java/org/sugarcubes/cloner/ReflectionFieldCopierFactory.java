@@ -63,7 +63,8 @@ public final class ReflectionFieldCopierFactory extends AbstractFieldCopierFacto
             case ORIGINAL:
                 return (original, clone, context) -> field.set(clone, field.get(original));
             case DEFAULT:
-                return (original, clone, context) -> field.set(clone, context.copy(field.get(original)));
+                CopierInlineCache cache = new CopierInlineCache(field.getDeclaringClass());
+                return (original, clone, context) -> field.set(clone, cache.copy(field.get(original), context));
             default:
                 throw new IllegalStateException();
         }
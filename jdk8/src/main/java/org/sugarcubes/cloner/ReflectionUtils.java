@@ -21,6 +21,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Shortcuts for Java Reflection API.
@@ -45,6 +47,12 @@ public class ReflectionUtils {
 
     }
 
+    /**
+     * {@code Class.getPermittedSubclasses()} method (Java 17+) or {@code null}.
+     */
+    private static final Method GET_PERMITTED_SUBCLASSES = isMethodAvailable(Class.class, "getPermittedSubclasses") ?
+        getMethod(Class.class, "getPermittedSubclasses") : null;
+
     /**
      * Executes call to Reflection API and replaces {@link ReflectiveOperationException} with {@link ClonerException}.
      *
@@ -77,6 +85,24 @@ public class ReflectionUtils {
         }
     }
 
+    /**
+     * Checks the availability of the public method in the class.
+     *
+     * @param type {@link Class} instance
+     * @param name method name
+     * @param parameterTypes parameter types
+     * @return {@code true} if method is available
+     */
+    public static boolean isMethodAvailable(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            type.getMethod(name, parameterTypes);
+            return true;
+        }
+        catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     /**
      * Version of {@link Class#forName(String)} with unchecked exception.
      *
@@ -148,6 +174,66 @@ public class ReflectionUtils {
         return !Modifier.isStatic(member.getModifiers());
     }
 
+    /**
+     * Returns all the possible runtime types of the values of the declared type if they are known statically: final
+     * classes (including arrays), enums (enum constant bodies are not returned) and sealed hierarchies (Java 17+).
+     *
+     * @param declaredType declared type
+     * @return set of the instantiable types or {@code null} if the hierarchy of the declared type is open
+     */
+    public static Set<Class<?>> getPossibleTypes(Class<?> declaredType) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        return collectPossibleTypes(declaredType, types) ? types : null;
+    }
+
+    /**
+     * Collects the possible runtime types of the type.
+     *
+     * @param type type
+     * @param types result set
+     * @return {@code false} if the hierarchy of the type is open
+     */
+    private static boolean collectPossibleTypes(Class<?> type, Set<Class<?>> types) {
+        if (Modifier.isFinal(type.getModifiers()) || type.isEnum()) {
+            types.add(type);
+            return true;
+        }
+        Class<?>[] permittedSubclasses = GET_PERMITTED_SUBCLASSES != null ?
+            (Class<?>[]) execute(() -> GET_PERMITTED_SUBCLASSES.invoke(type)) : null;
+        if (permittedSubclasses == null) {
+            return false;
+        }
+        if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+            types.add(type);
+        }
+        for (Class<?> subclass : permittedSubclasses) {
+            if (!collectPossibleTypes(subclass, types)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the class loader is the same as or an ancestor of the other class loader, i.e. the classes
+     * of the first loader are always reachable from the classes of the second one.
+     *
+     * @param loader class loader, {@code null} for the bootstrap class loader
+     * @param other other class loader, {@code null} for the bootstrap class loader
+     * @return {@code true} if the class loader is the same as or an ancestor of the other class loader
+     */
+    public static boolean isSameOrAncestorLoader(ClassLoader loader, ClassLoader other) {
+        if (loader == null) {
+            return true;
+        }
+        for (ClassLoader l = other; l != null; l = l.getParent()) {
+            if (l == loader) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Utility class.
      */
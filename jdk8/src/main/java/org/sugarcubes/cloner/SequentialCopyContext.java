@@ -15,29 +15,25 @@
  */
 package org.sugarcubes.cloner;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.function.Function;
 
 /**
- * Copy context for sequential copying.
+ * Copy context for sequential copying. The delayed work is kept in the {@link WorkQueue}.
  *
  * @author Maxim Butov
  */
 public class SequentialCopyContext extends AbstractCopyContext {
 
     /**
-     * Queue of actions to complete copying.
+     * Queue of the delayed work.
      */
-    private final Deque<Callable<?>> queue = new ArrayDeque<>();
+    private final WorkQueue queue = new WorkQueue();
 
     /**
-     * Poll method for {@link #queue}.
-     * Depending on traversal algorithm can be {@link Deque#pollLast()} or {@link Deque#pollFirst()}.
+     * Whether the queue is processed in LIFO (depth-first) or FIFO (breadth-first) order.
      */
-    private final Function<Deque<Callable<?>>, Callable<?>> poll;
+    private final boolean depthFirst;
 
     /**
      * Creates an object instance.
@@ -48,40 +44,63 @@ public class SequentialCopyContext extends AbstractCopyContext {
      */
     public SequentialCopyContext(CopierProvider copierProvider, Map<Object, Object> clones,
         TraversalAlgorithm traversalAlgorithm) {
-        super(copierProvider, clones);
-        this.poll = getPollMethod(traversalAlgorithm);
+        this(copierProvider, new IdentityTable(clones), traversalAlgorithm, null);
     }
 
     /**
-     * Returns queue poll method for traversal algorithm.
+     * Creates an object instance.
+     *
+     * @param copierProvider copier provider
+     * @param predefinedClones predefined cloned objects
+     * @param traversalAlgorithm traversal algorithm
+     * @param sizeEstimator estimator of the graph size, may be {@code null}
+     */
+    public SequentialCopyContext(CopierProvider copierProvider, IdentityTable predefinedClones,
+        TraversalAlgorithm traversalAlgorithm, GraphSizeEstimator sizeEstimator) {
+        super(copierProvider, predefinedClones, sizeEstimator);
+        this.depthFirst = isDepthFirst(traversalAlgorithm);
+    }
+
+    /**
+     * Returns {@code true} for depth-first traversal algorithm.
      *
-     * @param <T> queue item type
      * @param traversalAlgorithm traversal algorithm
-     * @return queue poll method
+     * @return {@code true} for depth-first traversal algorithm
      */
-    private <T> Function<Deque<T>, T> getPollMethod(TraversalAlgorithm traversalAlgorithm) {
+    private static boolean isDepthFirst(TraversalAlgorithm traversalAlgorithm) {
         switch (traversalAlgorithm) {
             case DEPTH_FIRST:
-                return Deque::pollLast;
+                return true;
             case BREADTH_FIRST:
-                return Deque::pollFirst;
+                return false;
             default:
                 throw new IllegalStateException();
         }
     }
 
     @Override
-    public void thenInvoke(Callable<?> task) {
+    public void thenInvoke(Callable<?> task) throws Exception {
         queue.offer(task);
     }
 
+    @Override
+    public <T> void thenCopy(TwoPhaseObjectCopier<T> copier, T original, T clone) throws Exception {
+        queue.offer(copier, original, clone);
+    }
+
     @Override
     public void complete() throws Exception {
-        Deque<Callable<?>> queue = this.queue;
-        Function<Deque<Callable<?>>, Callable<?>> poll = this.poll;
-        for (Callable<?> next; (next = poll.apply(queue)) != null; ) {
-            next.call();
+        WorkQueue queue = this.queue;
+        boolean depthFirst = this.depthFirst;
+        while (!queue.isEmpty()) {
+            queue.invokeNext(this, depthFirst);
         }
     }
 
+    @Override
+    public boolean reset() {
+        queue.clear();
+        return super.reset();
+    }
+
 }
@@ -21,7 +21,8 @@ import java.util.function.IntFunction;
 
 /**
  * Copier for simple collections (that do not call items {@link Object#hashCode()} method), because item hash code can differ in
- * the beginning and in the end of cloning.
+ * the beginning and in the end of cloning. The elements of a large collection are copied as an {@link ElementRange}, and
+ * the clone is filled when all of them have been copied.
  *
  * @author Maxim Butov
  */
@@ -49,6 +50,10 @@ public class SimpleCollectionCopier<T extends Collection<Object>> extends TwoPha
     @Override
     public void deepCopy(T original, T clone, CopyContext context) throws Exception {
         Object[] array = original.toArray();
+        if (array.length > ElementRange.CHUNK_SIZE) {
+            context.copyRange(new ElementRange(array, array, () -> clone.addAll(Arrays.asList(array))));
+            return;
+        }
         for (int k = 0, length = array.length; k < length; k++) {
             array[k] = context.copy(array[k]);
         }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.reflect.Field;
+
+/**
+ * Type copy policy which returns {@link CopyAction#ORIGINAL} for the stateless types, i.e. the classes which have no
+ * instance fields in the whole hierarchy, such as strategy objects, comparators, marker singletons and non-capturing
+ * lambdas. Such objects are shared instead of being copied.
+ *
+ * <p>The types with custom copiers (annotated with {@link TypeCopier} or {@link Copyable}) are not considered
+ * stateless. Neither is {@link Object} itself: its instances are typically used as locks or sentinels, whose identity
+ * is their state.</p>
+ *
+ * @author Maxim Butov
+ */
+public class StatelessTypePolicy implements CopyPolicy<Class<?>> {
+
+    @Override
+    public CopyAction getAction(Class<?> type) {
+        return isStateless(type) ? CopyAction.ORIGINAL : CopyAction.DEFAULT;
+    }
+
+    /**
+     * Returns {@code true} if the type is a class without instance fields, other than {@link Object}.
+     *
+     * @param type type
+     * @return {@code true} if the type is stateless
+     */
+    public static boolean isStateless(Class<?> type) {
+        if (type == Object.class || type.isArray() || type.isInterface() || type.isPrimitive() ||
+            type.getDeclaredAnnotation(TypeCopier.class) != null || Copyable.class.isAssignableFrom(type)) {
+            return false;
+        }
+        for (Class<?> t = type; t != null; t = t.getSuperclass()) {
+            for (Field field : t.getDeclaredFields()) {
+                if (ReflectionUtils.isNonStatic(field)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+}
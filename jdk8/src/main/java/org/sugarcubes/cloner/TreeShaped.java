@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the type which objects are never shared or cyclic in the copied graphs, i.e. every object of the type is
+ * referenced only once. The cloner does not track the identity of such objects, so the second reference to the same
+ * object would produce the second copy.
+ *
+ * @see ReflectionClonerBuilder#setTreeShaped(java.util.function.Predicate)
+ * @see ReflectionClonerBuilder#setTreeShapeVerification(boolean)
+ *
+ * @author Maxim Butov
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TreeShaped {
+
+}
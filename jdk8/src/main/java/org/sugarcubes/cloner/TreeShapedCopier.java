@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+/**
+ * Copier of the tree-shaped type (see {@link TreeShaped}). The copy context recognizes it and copies the object with
+ * the underlying copier without looking up and registering the clone.
+ *
+ * @param <T> object type
+ *
+ * @author Maxim Butov
+ */
+public final class TreeShapedCopier<T> implements ObjectCopier<T> {
+
+    /**
+     * Underlying copier.
+     */
+    private final ObjectCopier<T> copier;
+
+    /**
+     * Whether the context must verify that the objects are not shared.
+     */
+    private final boolean verification;
+
+    /**
+     * Creates an instance.
+     *
+     * @param copier underlying copier
+     * @param verification {@code true} if the context must verify that the objects are not shared
+     */
+    @SuppressWarnings("unchecked")
+    public TreeShapedCopier(ObjectCopier<?> copier, boolean verification) {
+        this.copier = (ObjectCopier<T>) copier;
+        this.verification = verification;
+    }
+
+    /**
+     * Returns the underlying copier.
+     *
+     * @return underlying copier
+     */
+    public ObjectCopier<T> getCopier() {
+        return copier;
+    }
+
+    /**
+     * Returns {@code true} if the context must verify that the objects are not shared.
+     *
+     * @return {@code true} if the objects must be verified
+     */
+    public boolean isVerification() {
+        return verification;
+    }
+
+    @Override
+    public T copy(T original, CopyContext context) throws Exception {
+        return copier.copy(original, context);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.function.Predicate;
+
+/**
+ * Types which objects are never shared or cyclic in the copied graphs: the types selected by the predicate and the types
+ * annotated with {@link TreeShaped}. The copiers of such types are wrapped into {@link TreeShapedCopier}, so the copy
+ * context does not track the identity of their objects.
+ *
+ * @author Maxim Butov
+ */
+public class TreeShapedTypes {
+
+    /**
+     * Predicate of the types.
+     */
+    private final Predicate<Class<?>> predicate;
+
+    /**
+     * Whether the context must verify that the objects are not shared.
+     */
+    private final boolean verification;
+
+    /**
+     * Creates an instance.
+     *
+     * @param predicate predicate of the tree-shaped types (in addition to the annotated ones)
+     * @param verification {@code true} if the context must verify that the objects are not shared, for debugging
+     */
+    public TreeShapedTypes(Predicate<Class<?>> predicate, boolean verification) {
+        this.predicate = predicate;
+        this.verification = verification;
+    }
+
+    /**
+     * Returns {@code true} if the type is tree-shaped.
+     *
+     * @param type type
+     * @return {@code true} if the type is tree-shaped
+     */
+    public boolean test(Class<?> type) {
+        return type.getDeclaredAnnotation(TreeShaped.class) != null || predicate.test(type);
+    }
+
+    /**
+     * Wraps the non-trivial copier of the tree-shaped type into {@link TreeShapedCopier}.
+     *
+     * @param type type
+     * @param copier copier of the type
+     * @return wrapped or the same copier
+     */
+    public ObjectCopier<?> wrap(Class<?> type, ObjectCopier<?> copier) {
+        if (copier == ObjectCopier.NOOP || copier == ObjectCopier.NULL || copier instanceof TreeShapedCopier || !test(type)) {
+            return copier;
+        }
+        return new TreeShapedCopier<>(copier, verification);
+    }
+
+}
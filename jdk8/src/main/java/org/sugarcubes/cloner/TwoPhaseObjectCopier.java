@@ -26,12 +26,7 @@ public abstract class TwoPhaseObjectCopier<T> implements ObjectCopier<T> {
     public T copy(T original, CopyContext context) throws Exception {
         T clone = allocate(original);
         context.register(original, clone);
-        context.thenInvoke(
-            () -> {
-                deepCopy(original, clone, context);
-                return null;
-            }
-        );
+        context.thenCopy(this, original, clone);
         return clone;
     }
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+/**
+ * Field copier factory which creates a single copier for all the fields of the type, including the fields declared
+ * in the super types.
+ *
+ * @author Maxim Butov
+ */
+public interface TypeFieldCopierFactory extends FieldCopierFactory {
+
+    /**
+     * Returns field copier which copies all the specified fields of the type.
+     *
+     * @param type object type
+     * @param fields map (field, copy action), does not contain {@link CopyAction#SKIP} actions
+     * @return field copier
+     */
+    FieldCopier getFieldCopier(Class<?> type, Map<Field, CopyAction> fields);
+
+}
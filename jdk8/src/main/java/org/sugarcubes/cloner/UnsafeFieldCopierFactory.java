@@ -16,6 +16,7 @@
 package org.sugarcubes.cloner;
 
 import java.lang.reflect.Field;
+import java.util.Map;
 
 import sun.misc.Unsafe;
 
@@ -23,15 +24,23 @@ import sun.misc.Unsafe;
  * Field copier factory which creates unsafe field copiers. Unsafe field copiers work faster because
  * the {@link Unsafe} does not check type of the object when setting field value.
  *
+ * <p>The type-level copier is the table-driven {@link UnsafeTableFieldCopier} which copies the whole hierarchy
+ * of the type in a single loop.</p>
+ *
  * @author Maxim Butov
  */
-public final class UnsafeFieldCopierFactory extends AbstractFieldCopierFactory {
+public final class UnsafeFieldCopierFactory extends AbstractFieldCopierFactory implements TypeFieldCopierFactory {
 
     /**
      * {@link Unsafe} instance.
      */
     private static final Unsafe UNSAFE = UnsafeUtils.getUnsafe();
 
+    @Override
+    public FieldCopier getFieldCopier(Class<?> type, Map<Field, CopyAction> fields) {
+        return new UnsafeTableFieldCopier(fields);
+    }
+
     @Override
     protected FieldCopier getPrimitiveFieldCopier(Field field) {
         long offset = UNSAFE.objectFieldOffset(field);
@@ -68,8 +77,9 @@ public final class UnsafeFieldCopierFactory extends AbstractFieldCopierFactory {
             case ORIGINAL:
                 return (original, clone, context) -> UNSAFE.putObject(clone, offset, UNSAFE.getObject(original, offset));
             case DEFAULT:
+                CopierInlineCache cache = new CopierInlineCache(field.getDeclaringClass());
                 return (original, clone, context) ->
-                    UNSAFE.putObject(clone, offset, context.copy(UNSAFE.getObject(original, offset)));
+                    UNSAFE.putObject(clone, offset, cache.copy(UNSAFE.getObject(original, offset), context));
             default:
                 throw new IllegalStateException();
         }
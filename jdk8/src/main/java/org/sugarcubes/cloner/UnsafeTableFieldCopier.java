@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import sun.misc.Unsafe;
+
+/**
+ * Table-driven field copier which copies all the fields of the type with {@link Unsafe}. The copying plan is
+ * the flat table of {@code (offset, kind)} pairs stored in primitive arrays, so there is neither a lambda per field
+ * nor a recursion into the super type copiers.
+ *
+ * <p>The primitive fields are sorted by offset. Adjacent primitive fields are merged into blocks, and every block
+ * is copied as raw memory with the widest aligned accesses, e.g. two adjacent {@code int} fields are copied with one
+ * {@code long} access. {@link Unsafe#copyMemory(Object, long, Object, long, long)} is not used because it accepts
+ * only primitive arrays as heap objects. Reference fields are copied one by one after the primitive ones, in the order
+ * of the map (i.e. in the declaration order), so the order of the deep copying does not depend on the field layout.
+ * Every deep-copied field has its own {@link CopierInlineCache}.</p>
+ *
+ * @author Maxim Butov
+ */
+public final class UnsafeTableFieldCopier implements FieldCopier {
+
+    /**
+     * {@link Unsafe} instance.
+     */
+    private static final Unsafe UNSAFE = UnsafeUtils.getUnsafe();
+
+    /**
+     * Memory access sizes.
+     */
+    private static final int LONG_SIZE = 8;
+    private static final int INT_SIZE = 4;
+    private static final int SHORT_SIZE = 2;
+    private static final int BYTE_SIZE = 1;
+
+    /**
+     * Entry kinds: memory accesses of different sizes and reference field actions.
+     */
+    private static final byte LONG = 0;
+    private static final byte INT = 1;
+    private static final byte SHORT = 2;
+    private static final byte BYTE = 3;
+    private static final byte ORIGINAL = 4;
+    private static final byte NULL = 5;
+    private static final byte DEFAULT = 6;
+
+    /**
+     * Offsets of the entries.
+     */
+    private final long[] offsets;
+
+    /**
+     * Kinds of the entries.
+     */
+    private final byte[] kinds;
+
+    /**
+     * Inline caches of the {@link #DEFAULT} entries, {@code null} for the other entries.
+     */
+    private final CopierInlineCache[] caches;
+
+    /**
+     * Creates copier.
+     *
+     * @param fields map (field, copy action)
+     */
+    public UnsafeTableFieldCopier(Map<Field, CopyAction> fields) {
+        List<Field> primitiveFields = new ArrayList<>();
+        List<Field> referenceFields = new ArrayList<>();
+        fields.forEach((field, action) -> {
+            if (field.getType().isPrimitive()) {
+                Check.illegalArg(action == CopyAction.NULL, "Cannot apply action NULL for primitive field %s.", field);
+            }
+            if (action != CopyAction.SKIP) {
+                (field.getType().isPrimitive() ? primitiveFields : referenceFields).add(field);
+            }
+        });
+        primitiveFields.sort(Comparator.comparingLong(UNSAFE::objectFieldOffset));
+
+        List<long[]> entries = new ArrayList<>();
+        long start = 0;
+        long end = 0;
+        for (Field field : primitiveFields) {
+            long offset = UNSAFE.objectFieldOffset(field);
+            if (offset != end) {
+                addMemoryAccesses(entries, start, end);
+                start = offset;
+            }
+            end = offset + sizeOf(field.getType());
+        }
+        addMemoryAccesses(entries, start, end);
+        int primitiveEntries = entries.size();
+        for (Field field : referenceFields) {
+            entries.add(new long[] {UNSAFE.objectFieldOffset(field), referenceKind(fields.get(field))});
+        }
+
+        this.offsets = new long[entries.size()];
+        this.kinds = new byte[entries.size()];
+        this.caches = new CopierInlineCache[entries.size()];
+        for (int k = 0; k < offsets.length; k++) {
+            offsets[k] = entries.get(k)[0];
+            kinds[k] = (byte) entries.get(k)[1];
+            if (kinds[k] == DEFAULT) {
+                caches[k] = new CopierInlineCache(referenceFields.get(k - primitiveEntries).getDeclaringClass());
+            }
+        }
+    }
+
+    /**
+     * Splits the memory block into aligned accesses.
+     *
+     * @param entries list of (offset, kind) pairs
+     * @param start block start offset
+     * @param end block end offset
+     */
+    private static void addMemoryAccesses(List<long[]> entries, long start, long end) {
+        for (long offset = start; offset < end; ) {
+            int size = LONG_SIZE;
+            while (size > BYTE_SIZE && (offset % size != 0 || offset + size > end)) {
+                size /= 2;
+            }
+            entries.add(new long[] {offset, memoryKind(size)});
+            offset += size;
+        }
+    }
+
+    /**
+     * Returns the size of the primitive type in bytes.
+     *
+     * @param type primitive type
+     * @return size in bytes
+     */
+    private static long sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return LONG_SIZE;
+        }
+        if (type == int.class || type == float.class) {
+            return INT_SIZE;
+        }
+        if (type == short.class || type == char.class) {
+            return SHORT_SIZE;
+        }
+        return BYTE_SIZE;
+    }
+
+    /**
+     * Returns entry kind for the memory access.
+     *
+     * @param size access size
+     * @return entry kind
+     */
+    private static byte memoryKind(int size) {
+        switch (size) {
+            case LONG_SIZE:
+                return LONG;
+            case INT_SIZE:
+                return INT;
+            case SHORT_SIZE:
+                return SHORT;
+            default:
+                return BYTE;
+        }
+    }
+
+    /**
+     * Returns entry kind for the reference field.
+     *
+     * @param action copy action
+     * @return entry kind
+     */
+    private static byte referenceKind(CopyAction action) {
+        switch (action) {
+            case ORIGINAL:
+                return ORIGINAL;
+            case NULL:
+                return NULL;
+            case DEFAULT:
+                return DEFAULT;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    @Override
+    public void copy(Object original, Object clone, CopyContext context) throws Exception {
+        long[] offsets = this.offsets;
+        byte[] kinds = this.kinds;
+        for (int k = 0, length = offsets.length; k < length; k++) {
+            long offset = offsets[k];
+            switch (kinds[k]) {
+                case LONG:
+                    UNSAFE.putLong(clone, offset, UNSAFE.getLong(original, offset));
+                    break;
+                case INT:
+                    UNSAFE.putInt(clone, offset, UNSAFE.getInt(original, offset));
+                    break;
+                case SHORT:
+                    UNSAFE.putShort(clone, offset, UNSAFE.getShort(original, offset));
+                    break;
+                case BYTE:
+                    UNSAFE.putByte(clone, offset, UNSAFE.getByte(original, offset));
+                    break;
+                case ORIGINAL:
+                    UNSAFE.putObject(clone, offset, UNSAFE.getObject(original, offset));
+                    break;
+                case NULL:
+                    UNSAFE.putObject(clone, offset, null);
+                    break;
+                default:
+                    UNSAFE.putObject(clone, offset, caches[k].copy(UNSAFE.getObject(original, offset), context));
+                    break;
+            }
+        }
+    }
+
+}
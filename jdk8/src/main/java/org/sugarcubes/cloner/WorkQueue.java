@@ -0,0 +1,281 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Queue of the delayed work of the copy context. The elements are (task, original, clone) triples kept in the parallel
+ * arrays. The task is either a {@link TwoPhaseObjectCopier}, which second phase is invoked for the original and
+ * the clone, or an {@link ElementRange} or a {@link Callable} (with {@code null} original and clone). So the two-phase
+ * copiers do not allocate a task object per copied object, and the range is copied with the context which takes it
+ * from the queue.
+ *
+ * <p>The elements may be taken from both ends, so the queue serves both depth-first and breadth-first traversal.
+ * The queue is not thread safe.</p>
+ *
+ * @author Maxim Butov
+ */
+public final class WorkQueue {
+
+    /**
+     * Initial capacity of the queue.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Tasks: {@link TwoPhaseObjectCopier}, {@link ElementRange} or {@link Callable}.
+     */
+    private Object[] tasks;
+
+    /**
+     * Original objects of the two-phase copiers.
+     */
+    private Object[] originals;
+
+    /**
+     * Clones of the two-phase copiers.
+     */
+    private Object[] clones;
+
+    /**
+     * Index of the first element of the queue.
+     */
+    private int head;
+
+    /**
+     * Index after the last element of the queue.
+     */
+    private int tail;
+
+    /**
+     * Creates an empty queue.
+     */
+    public WorkQueue() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty queue with the specified capacity.
+     *
+     * @param capacity initial capacity
+     */
+    private WorkQueue(int capacity) {
+        tasks = new Object[capacity];
+        originals = new Object[capacity];
+        clones = new Object[capacity];
+    }
+
+    /**
+     * Adds the second phase of the two-phase copier to the end of the queue.
+     *
+     * @param <T> object type
+     * @param copier two-phase copier
+     * @param original original object
+     * @param clone clone
+     */
+    public <T> void offer(TwoPhaseObjectCopier<T> copier, T original, T clone) {
+        offer((Object) copier, original, clone);
+    }
+
+    /**
+     * Adds the range of the elements to the end of the queue.
+     *
+     * @param range range of the elements
+     */
+    public void offer(ElementRange range) {
+        offer(range, null, null);
+    }
+
+    /**
+     * Splits the range of the elements into the parts and adds them to the end of the queue, so the parts can be
+     * taken by the different threads.
+     *
+     * @param range range of the elements
+     */
+    public void offerParts(ElementRange range) {
+        for (ElementRange part; (part = range.trySplit()) != null; ) {
+            offer(part);
+        }
+        offer(range);
+    }
+
+    /**
+     * Adds the task to the end of the queue.
+     *
+     * @param task task
+     */
+    public void offer(Callable<?> task) {
+        offer(task, null, null);
+    }
+
+    /**
+     * Adds the triple to the end of the queue.
+     *
+     * @param task task
+     * @param original original object or {@code null}
+     * @param clone clone or {@code null}
+     */
+    private void offer(Object task, Object original, Object clone) {
+        if (tail == tasks.length) {
+            grow(1);
+        }
+        int index = tail++;
+        tasks[index] = task;
+        originals[index] = original;
+        clones[index] = clone;
+    }
+
+    /**
+     * Moves the queue to the beginning of the arrays, doubles the arrays until they are at most half full with
+     * the added elements.
+     *
+     * @param count number of the elements to add
+     */
+    private void grow(int count) {
+        int size = size();
+        int length = tasks.length;
+        while (size + count > (length >> 1)) {
+            length <<= 1;
+        }
+        tasks = move(tasks, length, size);
+        originals = move(originals, length, size);
+        clones = move(clones, length, size);
+        head = 0;
+        tail = size;
+    }
+
+    /**
+     * Moves the elements of the queue to the beginning of the array of the specified length.
+     *
+     * @param array array
+     * @param length length of the result
+     * @param size number of the elements in the queue
+     * @return the same array or the new one
+     */
+    private Object[] move(Object[] array, int length, int size) {
+        Object[] result = length == array.length ? array : new Object[length];
+        System.arraycopy(array, head, result, 0, size);
+        if (result == array) {
+            Arrays.fill(array, size, tail, null);
+        }
+        return result;
+    }
+
+    /**
+     * Returns {@code true} if the queue is empty.
+     *
+     * @return {@code true} if the queue is empty
+     */
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * Returns the number of the elements.
+     *
+     * @return number of the elements
+     */
+    public int size() {
+        return tail - head;
+    }
+
+    /**
+     * Removes the last (for depth-first traversal) or the first (for breadth-first traversal) element and invokes it.
+     * The queue must not be empty.
+     *
+     * @param context copy context for the second phase of the two-phase copier or for the range of the elements
+     * @param last {@code true} to take the last element, {@code false} to take the first one
+     * @throws Exception if something went wrong
+     */
+    @SuppressWarnings("unchecked")
+    public void invokeNext(CopyContext context, boolean last) throws Exception {
+        int index = last ? --tail : head++;
+        Object task = tasks[index];
+        Object original = originals[index];
+        Object clone = clones[index];
+        tasks[index] = null;
+        originals[index] = null;
+        clones[index] = null;
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+        }
+        if (clone != null) {
+            ((TwoPhaseObjectCopier<Object>) task).deepCopy(original, clone, context);
+        }
+        else if (task instanceof ElementRange) {
+            ((ElementRange) task).copy(context);
+        }
+        else {
+            ((Callable<?>) task).call();
+        }
+    }
+
+    /**
+     * Removes the first elements of the queue into a new queue.
+     *
+     * @param count number of the elements
+     * @return new queue
+     */
+    public WorkQueue split(int count) {
+        Check.illegalArg(count < 0 || count > size(), "Invalid number of elements: %d.", count);
+        WorkQueue queue = new WorkQueue(Math.max(count, INITIAL_CAPACITY));
+        System.arraycopy(tasks, head, queue.tasks, 0, count);
+        System.arraycopy(originals, head, queue.originals, 0, count);
+        System.arraycopy(clones, head, queue.clones, 0, count);
+        queue.tail = count;
+        Arrays.fill(tasks, head, head + count, null);
+        Arrays.fill(originals, head, head + count, null);
+        Arrays.fill(clones, head, head + count, null);
+        head += count;
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+        }
+        return queue;
+    }
+
+    /**
+     * Moves all the elements of another queue to the end of this queue.
+     *
+     * @param queue another queue, empty after the call
+     */
+    public void addAll(WorkQueue queue) {
+        int count = queue.size();
+        if (tail + count > tasks.length) {
+            grow(count);
+        }
+        System.arraycopy(queue.tasks, queue.head, tasks, tail, count);
+        System.arraycopy(queue.originals, queue.head, originals, tail, count);
+        System.arraycopy(queue.clones, queue.head, clones, tail, count);
+        tail += count;
+        queue.clear();
+    }
+
+    /**
+     * Removes all the elements.
+     */
+    public void clear() {
+        Arrays.fill(tasks, head, tail, null);
+        Arrays.fill(originals, head, tail, null);
+        Arrays.fill(clones, head, tail, null);
+        head = 0;
+        tail = 0;
+    }
+
+}
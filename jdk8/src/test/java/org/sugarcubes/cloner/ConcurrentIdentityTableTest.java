@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class ConcurrentIdentityTableTest {
+
+    @Test
+    void testClaimPublish() {
+        ConcurrentIdentityTable table = new ConcurrentIdentityTable();
+        ConcurrentIdentityTable.Owner owner = new ConcurrentIdentityTable.Owner();
+        Object key = new Object();
+        Object value = new Object();
+        assertThat(table.claim(key, owner), nullValue());
+        assertThat(table.get(key), nullValue());
+        Assertions.assertThrows(ClonerException.class, () -> table.claim(key, owner));
+        table.publish(key, value);
+        assertThat(table.get(key), sameInstance(value));
+        assertThat(table.claim(key, owner), sameInstance(value));
+        assertThat(table.claim(key, new ConcurrentIdentityTable.Owner()), sameInstance(value));
+        table.publishIfClaimed(key, owner, new Object());
+        assertThat(table.get(key), sameInstance(value));
+        assertThat(table.size(), is(1));
+    }
+
+    @Test
+    void testReentrantClaim() throws Exception {
+        ConcurrentIdentityTable table = new ConcurrentIdentityTable();
+        ConcurrentIdentityTable.Owner owner = ConcurrentIdentityTable.Owner.current();
+        assertThat(ConcurrentIdentityTable.Owner.current(), sameInstance(owner));
+        Object key = new Object();
+        Object value = new Object();
+        assertThat(table.claim(key, owner), nullValue());
+        // the same thread claims the key again, e.g. in another context sharing the table
+        Assertions.assertThrows(ClonerException.class, () -> table.claim(key, ConcurrentIdentityTable.Owner.current()));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> waiter = executor.submit(() -> table.claim(key, ConcurrentIdentityTable.Owner.current()));
+            Thread.sleep(100);
+            assertThat(waiter.isDone(), is(false));
+            table.publishIfClaimed(key, ConcurrentIdentityTable.Owner.current(), value);
+            assertThat(waiter.get(), sameInstance(value));
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testAbandon() throws Exception {
+        ConcurrentIdentityTable table = new ConcurrentIdentityTable();
+        ConcurrentIdentityTable.Owner owner = new ConcurrentIdentityTable.Owner();
+        Object key = new Object();
+        assertThat(table.claim(key, owner), nullValue());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> waiter = executor.submit(() -> table.claim(key, new ConcurrentIdentityTable.Owner()));
+            Thread.sleep(100);
+            table.abandon(key, owner);
+            Assertions.assertThrows(ClonerException.class, () -> {
+                try {
+                    waiter.get();
+                }
+                catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testSingleClaimPerKey() throws Exception {
+        int threads = 8;
+        int size = 10_000;
+        ConcurrentIdentityTable table = new ConcurrentIdentityTable();
+        List<Object> keys = new ArrayList<>();
+        for (int k = 0; k < size; k++) {
+            keys.add(new Object());
+        }
+        AtomicIntegerArray claims = new AtomicIntegerArray(size);
+        Object[][] results = new Object[threads][size];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Object[] result = results[t];
+                futures.add(executor.submit(() -> {
+                    ConcurrentIdentityTable.Owner owner = new ConcurrentIdentityTable.Owner();
+                    start.await();
+                    for (int k = 0; k < size; k++) {
+                        Object key = keys.get(k);
+                        Object value = table.claim(key, owner);
+                        if (value == null) {
+                            claims.incrementAndGet(k);
+                            value = new Object();
+                            table.publish(key, value);
+                        }
+                        result[k] = value;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertThat(table.size(), is(size));
+        for (int k = 0; k < size; k++) {
+            assertThat(claims.get(k), is(1));
+            for (int t = 1; t < threads; t++) {
+                assertThat(results[t][k], sameInstance(results[0][k]));
+            }
+        }
+    }
+
+}
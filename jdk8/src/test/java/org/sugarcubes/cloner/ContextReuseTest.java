@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class ContextReuseTest {
+
+    static class Value {
+
+        List<Object> list = new ArrayList<>();
+
+    }
+
+    static class Nested {
+
+        Value value = new Value();
+
+    }
+
+    static class Failing {
+
+    }
+
+    public static class Plain {
+
+        public int value = 1;
+
+        public Plain() {
+        }
+
+    }
+
+    private final AtomicInteger contexts = new AtomicInteger();
+
+    private final AtomicReference<Cloner> cloner = new AtomicReference<>();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private Cloner cloner() {
+        Map<Class<?>, ObjectCopier<?>> copiers = new HashMap<>();
+        copiers.put(String.class, ObjectCopier.NOOP);
+        copiers.put(Nested.class, (ObjectCopier<Nested>) (original, context) -> {
+            Nested clone = new Nested();
+            clone.value = cloner.get().clone(original.value);
+            return clone;
+        });
+        copiers.put(Failing.class, (ObjectCopier<Failing>) (original, context) -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException();
+            }
+            return new Failing();
+        });
+        ReflectionCopierProvider provider = new ReflectionCopierProvider(null, CopyPolicy.defaultPolicy(),
+            CopyPolicy.defaultPolicy(), ObjectAllocator.defaultAllocator(), copiers, new ReflectionFieldCopierFactory());
+        Cloner cloner = new ClonerImpl(provider, () -> {
+            contexts.incrementAndGet();
+            return new SequentialCopyContext(provider, new IdentityTable(), TraversalAlgorithm.DEPTH_FIRST,
+                new GraphSizeEstimator());
+        });
+        this.cloner.set(cloner);
+        return cloner;
+    }
+
+    @Test
+    void testNoopRoot() {
+        Cloner cloner = cloner();
+        String string = "string";
+        assertThat(cloner.clone(string), sameInstance(string));
+        assertThat(contexts.get(), is(0));
+    }
+
+    @Test
+    void testReuse() {
+        Cloner cloner = cloner();
+        Value original = new Value();
+        original.list.add(original);
+        Value first = cloner.clone(original);
+        Value second = cloner.clone(original);
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.list.get(0), sameInstance(second));
+        assertThat(contexts.get(), is(1));
+    }
+
+    @Test
+    void testNestedCloning() {
+        Cloner cloner = cloner();
+        Nested original = new Nested();
+        Nested previous = original;
+        for (int k = 0; k < 3; k++) {
+            Nested clone = cloner.clone(original);
+            assertThat(clone.value, not(sameInstance(original.value)));
+            assertThat(clone.value, not(sameInstance(previous.value)));
+            previous = clone;
+        }
+    }
+
+    @Test
+    void testReuseAfterFailure() {
+        Cloner cloner = cloner();
+        failures.set(1);
+        Failing original = new Failing();
+        Assertions.assertThrows(ClonerException.class, () -> cloner.clone(original));
+        assertThat(cloner.clone(original), not(sameInstance(original)));
+        assertThat(contexts.get(), is(1));
+    }
+
+    @Test
+    void testPredefinedClones() {
+        Value original = new Value();
+        Value predefined = new Value();
+        Cloner cloner = Cloners.builder().setClone(original, predefined).build();
+        for (int k = 0; k < 3; k++) {
+            assertThat(cloner.clone(original), sameInstance(predefined));
+        }
+    }
+
+    @Test
+    void testClassUnloading() throws Exception {
+        WeakReference<ClassLoader> loader = clonePlain(Cloners.reflection());
+        for (int k = 0; k < 100 && loader.get() != null; k++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(loader.get(), nullValue());
+    }
+
+    private static WeakReference<ClassLoader> clonePlain(Cloner cloner) throws Exception {
+        ClassLoader loader = new CustomClassLoader(ContextReuseTest.class.getClassLoader()).reload(Plain.class.getName());
+        Object[] original = {loader.loadClass(Plain.class.getName()).newInstance()};
+        Object[] clone = cloner.clone(original);
+        assertThat(clone[0].getClass(), sameInstance(original[0].getClass()));
+        assertThat(clone[0], not(sameInstance(original[0])));
+        return new WeakReference<>(loader);
+    }
+
+}
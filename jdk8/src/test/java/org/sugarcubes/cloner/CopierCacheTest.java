@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class CopierCacheTest {
+
+    static class A {
+
+        int value = 1;
+
+    }
+
+    static class B {
+
+        int value = 2;
+
+    }
+
+    static class C {
+
+        int value = 3;
+
+    }
+
+    static class Holder {
+
+        Object value;
+
+    }
+
+    public static class Plugin {
+
+        public List<Object> items = new ArrayList<>();
+
+        public Plugin() {
+            items.add(new int[] {1, 2, 3});
+        }
+
+    }
+
+    @Test
+    void testLookup() {
+        CopierCache cache = new CopierCache();
+        AtomicInteger created = new AtomicInteger();
+        ObjectCopier<?> a = cache.get(A.class, type -> {
+            created.incrementAndGet();
+            return (ObjectCopier<A>) (original, context) -> new A();
+        });
+        ObjectCopier<?> b = cache.get(B.class, type -> {
+            created.incrementAndGet();
+            return (ObjectCopier<B>) (original, context) -> new B();
+        });
+        assertThat(a, not(sameInstance(b)));
+        for (int k = 0; k < 3; k++) {
+            assertThat(cache.get(A.class, type -> null), sameInstance(a));
+            assertThat(cache.get(B.class, type -> null), sameInstance(b));
+        }
+        assertThat(created.get(), is(2));
+    }
+
+    @Test
+    void testFailedFactory() {
+        CopierCache cache = new CopierCache();
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.get(A.class, type -> {
+            throw new IllegalStateException();
+        }));
+        ObjectCopier<?> copier = (ObjectCopier<A>) (original, context) -> new A();
+        assertThat(cache.get(A.class, type -> copier), sameInstance(copier));
+    }
+
+    @Test
+    void testConcurrentLookup() throws Exception {
+        CopierCache cache = new CopierCache();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ObjectCopier<?>>> futures = new ArrayList<>();
+            for (int k = 0; k < threads; k++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(A.class, type -> (ObjectCopier<A>) (original, context) -> new A());
+                }));
+            }
+            start.countDown();
+            ObjectCopier<?> copier = futures.get(0).get();
+            for (Future<ObjectCopier<?>> future : futures) {
+                assertThat(future.get(), sameInstance(copier));
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testStats() {
+        CopierCache cache = new CopierCache().recordStats();
+        Cloner cloner = Cloners.builder().setCopierCache(cache).build();
+        Object[] original = {new A(), new B(), new C()};
+        cloner.clone(original);
+        long misses = cache.getMissCount();
+        assertThat(misses > 0, is(true));
+        for (int k = 0; k < 3; k++) {
+            cloner.clone(original);
+        }
+        assertThat(cache.getMissCount(), is(misses));
+        assertThat(cache.getHitCount() > 0, is(true));
+    }
+
+    @Test
+    void testNoStats() {
+        CopierCache cache = new CopierCache();
+        Cloners.builder().setCopierCache(cache).build().clone(new A());
+        assertThat(cache.getHitCount(), is(-1L));
+        assertThat(cache.getMissCount(), is(-1L));
+    }
+
+    @Test
+    void testCacheCannotBeShared() {
+        CopierCache cache = new CopierCache();
+        ReflectionClonerBuilder builder = Cloners.builder().setCopierCache(cache);
+        builder.build();
+        Assertions.assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    @Test
+    void testClassUnloading() throws Exception {
+        Cloner cloner = Cloners.reflection();
+        WeakReference<ClassLoader> loader = clonePlugin(cloner);
+        for (int k = 0; k < 100 && loader.get() != null; k++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(loader.get(), nullValue());
+    }
+
+    private static WeakReference<ClassLoader> clonePlugin(Cloner cloner) throws Exception {
+        ClassLoader loader = new CustomClassLoader(CopierCacheTest.class.getClassLoader()).reload(Plugin.class.getName());
+        Class<?> pluginClass = loader.loadClass(Plugin.class.getName());
+        assertThat(pluginClass, not(sameInstance(Plugin.class)));
+        Holder original = new Holder();
+        original.value = pluginClass.newInstance();
+        for (int k = 0; k < 3; k++) {
+            Holder clone = cloner.clone(original);
+            assertThat(clone.value.getClass(), sameInstance(pluginClass));
+            assertThat(clone.value, not(sameInstance(original.value)));
+        }
+        return new WeakReference<>(loader);
+    }
+
+}
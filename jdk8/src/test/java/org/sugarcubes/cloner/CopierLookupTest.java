@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class CopierLookupTest {
+
+    static class A {
+
+    }
+
+    static class B {
+
+    }
+
+    static class Box {
+
+        final boolean keep;
+
+        Box(boolean keep) {
+            this.keep = keep;
+        }
+
+    }
+
+    static class RecordingProvider implements CopierProvider {
+
+        final boolean typeBased;
+
+        final List<Object> requests = new ArrayList<>();
+
+        RecordingProvider(boolean typeBased) {
+            this.typeBased = typeBased;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> ObjectCopier<T> getCopier(T original) {
+            requests.add(original);
+            if (original instanceof Box) {
+                return (ObjectCopier<T>) (((Box) original).keep ? ObjectCopier.NOOP : ObjectCopier.NULL);
+            }
+            if (original instanceof A) {
+                return (ObjectCopier<T>) (ObjectCopier<A>) (object, context) -> new A();
+            }
+            return (ObjectCopier<T>) (ObjectCopier<B>) (object, context) -> new B();
+        }
+
+        @Override
+        public boolean isTypeBased() {
+            return typeBased;
+        }
+
+    }
+
+    private static CopyContext context(CopierProvider provider) {
+        return new SequentialCopyContext(provider, new IdentityTable(), TraversalAlgorithm.DEPTH_FIRST, null);
+    }
+
+    @Test
+    void testNonTypeBasedProvider() throws Exception {
+        RecordingProvider provider = new RecordingProvider(false);
+        CopyContext context = context(provider);
+        Box kept = new Box(true);
+        Box nulled = new Box(false);
+        for (int k = 0; k < 3; k++) {
+            assertThat(context.copy(kept), sameInstance(kept));
+            assertThat(context.copy(nulled), nullValue());
+        }
+        // the same type, but the copier depends on the object, so the provider is asked every time
+        assertThat(provider.requests.size(), is(6));
+        assertThat(context.getTypeCopier(kept), nullValue());
+    }
+
+    @Test
+    void testAlternatingTypes() throws Exception {
+        RecordingProvider provider = new RecordingProvider(true);
+        CopyContext context = context(provider);
+        for (int k = 0; k < 3; k++) {
+            A a = new A();
+            B b = new B();
+            Object aClone = context.copy(a);
+            Object bClone = context.copy(b);
+            assertThat(aClone.getClass(), sameInstance(A.class));
+            assertThat(aClone, not(sameInstance(a)));
+            assertThat(bClone.getClass(), sameInstance(B.class));
+            assertThat(bClone, not(sameInstance(b)));
+        }
+        assertThat(provider.requests.size(), is(6));
+    }
+
+    @Test
+    void testSameType() throws Exception {
+        RecordingProvider provider = new RecordingProvider(true);
+        CopyContext context = context(provider);
+        for (int k = 0; k < 3; k++) {
+            assertThat(context.copy(new A()).getClass(), sameInstance(A.class));
+        }
+        for (int k = 0; k < 3; k++) {
+            assertThat(context.copy(new B()).getClass(), sameInstance(B.class));
+        }
+        // the front cache keeps the copier of the last type
+        assertThat(provider.requests.size(), is(2));
+    }
+
+}
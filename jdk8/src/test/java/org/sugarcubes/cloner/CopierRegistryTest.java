@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class CopierRegistryTest {
+
+    static class Value {
+
+        int value = 1;
+
+    }
+
+    static class Other {
+
+        int x = 1;
+        int y = 2;
+
+    }
+
+    static class Holder {
+
+        Object value = new Value();
+        Other other = new Other();
+
+    }
+
+    @Test
+    void testDefaultCloner() {
+        assertThat(Cloners.reflection(), sameInstance(Cloners.reflection()));
+    }
+
+    @Test
+    void testDerivedCloner() {
+        PrepareTest.CountingAllocator allocator = new PrepareTest.CountingAllocator();
+        ReflectionClonerBuilder builder = Cloners.builder().setAllocator(allocator).setCopierRegistry(new CopierRegistry());
+        Cloner cloner = builder.build();
+        Cloner derived = new ReflectionClonerBuilder(builder).setFieldAction(Other.class, "x", CopyAction.SKIP).build();
+        Holder original = new Holder();
+        Holder clone = cloner.clone(original);
+        Holder derivedClone = derived.clone(original);
+        assertThat(clone.other.x, is(1));
+        assertThat(derivedClone.other.x, is(0));
+        assertThat(derivedClone.other.y, is(2));
+        assertThat(allocator.counters.get(Holder.class).get(), is(1));
+        assertThat(allocator.counters.get(Value.class).get(), is(1));
+        assertThat(allocator.counters.get(Other.class).get(), is(2));
+    }
+
+    @Test
+    void testNotSharedByDefault() {
+        PrepareTest.CountingAllocator allocator = new PrepareTest.CountingAllocator();
+        ReflectionClonerBuilder builder = Cloners.builder().setAllocator(allocator);
+        Cloner cloner = builder.build();
+        Cloner other = new ReflectionClonerBuilder(builder).build();
+        Holder original = new Holder();
+        cloner.clone(original);
+        other.clone(original);
+        assertThat(allocator.counters.get(Holder.class).get(), is(2));
+        assertThat(allocator.counters.get(Value.class).get(), is(2));
+    }
+
+    @Test
+    void testSharedCopiers() {
+        ReflectionClonerBuilder builder = Cloners.builder().setCopierRegistry(new CopierRegistry());
+        Cloner cloner = builder.build();
+        Cloner derived = new ReflectionClonerBuilder(builder).setTypeAction(Value.class, CopyAction.NULL).build();
+        Holder original = new Holder();
+        for (int k = 0; k < 3; k++) {
+            Holder clone = cloner.clone(original);
+            assertThat(clone.value, not(sameInstance(original.value)));
+            assertThat(((Value) clone.value).value, is(1));
+            assertThat(derived.clone(original).value, nullValue());
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+class ElementRangeTest {
+
+    @Test
+    void testSplitAndComplete() throws Exception {
+        int size = ElementRange.CHUNK_SIZE * 3 + 1;
+        Integer[] originals = new Integer[size];
+        for (int k = 0; k < size; k++) {
+            originals[k] = k;
+        }
+        Object[] clones = new Object[size];
+        AtomicInteger completed = new AtomicInteger();
+        ElementRange range = new ElementRange(originals, clones, completed::incrementAndGet);
+        List<ElementRange> parts = new ArrayList<>();
+        for (ElementRange part; (part = range.trySplit()) != null; ) {
+            assertThat(part.size(), is(ElementRange.CHUNK_SIZE));
+            parts.add(part);
+        }
+        assertThat(parts.size(), is(3));
+        assertThat(range.size(), is(1));
+        assertThat(range.trySplit(), nullValue());
+        CopyContext context = new CopyContext() {
+
+            @Override
+            public <T> void register(T original, T clone) {
+            }
+
+            @Override
+            public <T> T copy(T original) {
+                return original;
+            }
+
+            @Override
+            public void thenInvoke(Callable<?> task) throws Exception {
+                task.call();
+            }
+
+        };
+        range.copy(context);
+        for (ElementRange part : parts) {
+            assertThat(completed.get(), is(0));
+            part.copy(context);
+        }
+        assertThat(completed.get(), is(1));
+        for (int k = 0; k < size; k++) {
+            assertThat(clones[k], is(k));
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class ForkJoinCopyContextTest {
+
+    static class Node {
+
+        int id;
+        Node parent;
+        Node shared;
+        List<Node> children = new ArrayList<>();
+
+    }
+
+    static class Failing {
+
+    }
+
+    static class Unregistered {
+
+    }
+
+    private static Node tree(int depth, int width, Node parent, Node shared, int[] counter) {
+        Node node = new Node();
+        node.id = counter[0]++;
+        node.parent = parent;
+        node.shared = shared != null ? shared : node;
+        if (depth > 0) {
+            for (int k = 0; k < width; k++) {
+                node.children.add(tree(depth - 1, width, node, node.shared, counter));
+            }
+        }
+        return node;
+    }
+
+    private static int check(Node original, Node clone, Node parent, Node shared) {
+        assertThat(clone, not(sameInstance(original)));
+        assertThat(clone.id, is(original.id));
+        assertThat(clone.parent, sameInstance(parent));
+        assertThat(clone.shared, sameInstance(shared != null ? shared : clone));
+        int count = 1;
+        for (int k = 0; k < original.children.size(); k++) {
+            count += check(original.children.get(k), clone.children.get(k), clone, clone.shared);
+        }
+        return count;
+    }
+
+    @Test
+    void testLargeGraph() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Cloner cloner = Cloners.builder().setMode(CloningMode.PARALLEL).setExecutor(pool).setSplitThreshold(2).build();
+            int[] counter = {0};
+            Node original = tree(6, 6, null, null, counter);
+            for (int k = 0; k < 3; k++) {
+                assertThat(check(original, cloner.clone(original), null, null), is(counter[0]));
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testLargeArraysAndCollections() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Cloner cloner = Cloners.builder().setMode(CloningMode.PARALLEL).setExecutor(pool).build();
+            int size = ElementRange.CHUNK_SIZE * 10 + 1;
+            Node shared = new Node();
+            Node[] array = new Node[size];
+            List<Node> list = new ArrayList<>();
+            IdentityHashMap<Node, Node> map = new IdentityHashMap<>();
+            for (int k = 0; k < size; k++) {
+                Node node = new Node();
+                node.id = k;
+                node.shared = shared;
+                array[k] = node;
+                list.add(node);
+                map.put(node, shared);
+            }
+            Object[] clone = cloner.clone(new Object[] {array, list, map});
+            Node[] arrayClone = (Node[]) clone[0];
+            List<Node> listClone = (List<Node>) clone[1];
+            IdentityHashMap<Node, Node> mapClone = (IdentityHashMap<Node, Node>) clone[2];
+            Node sharedClone = arrayClone[0].shared;
+            assertThat(sharedClone, not(sameInstance(shared)));
+            assertThat(listClone.size(), is(size));
+            assertThat(mapClone.size(), is(size));
+            for (int k = 0; k < size; k++) {
+                assertThat(arrayClone[k].id, is(k));
+                assertThat(arrayClone[k].shared, sameInstance(sharedClone));
+                assertThat(listClone.get(k), sameInstance(arrayClone[k]));
+                assertThat(mapClone.get(arrayClone[k]), sameInstance(sharedClone));
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testFailure() {
+        Cloner cloner = Cloners.builder().setMode(CloningMode.PARALLEL).setSplitThreshold(2)
+            .setCopier(Failing.class, (original, context) -> {
+                throw new IllegalStateException("failed");
+            })
+            .build();
+        List<Object> original = new ArrayList<>();
+        for (int k = 0; k < 1000; k++) {
+            original.add(new ArrayList<>(Arrays.asList(new Object[] {new Node()})));
+        }
+        original.add(new ArrayList<>(Arrays.asList(new Object[] {new Failing()})));
+        Assertions.assertThrows(ClonerException.class, () -> cloner.clone(original));
+    }
+
+    @Test
+    void testNoLocksOnOriginals() {
+        Cloner cloner = Cloners.builder().setMode(CloningMode.PARALLEL).setSplitThreshold(2)
+            .setCopier(Unregistered.class, (original, context) -> {
+                assertThat(Thread.holdsLock(original), is(false));
+                // the clone is not registered, it must be published by the context
+                return new Unregistered();
+            })
+            .build();
+        Unregistered shared = new Unregistered();
+        List<Object> original = new ArrayList<>();
+        for (int k = 0; k < 1000; k++) {
+            original.add(new ArrayList<>(Arrays.asList(new Object[] {shared, new Node()})));
+        }
+        List<Object> clone = cloner.clone(original);
+        Object sharedClone = ((List<?>) clone.get(0)).get(0);
+        assertThat(sharedClone, not(sameInstance(shared)));
+        for (Object list : clone) {
+            assertThat(((List<?>) list).get(0), sameInstance(sharedClone));
+        }
+    }
+
+    @Test
+    void testSplitThresholdInOtherModes() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Cloners.builder().setSplitThreshold(16).build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Cloners.builder().setSplitThreshold(1));
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class FrozenObjectRegistryTest {
+
+    static class Reference {
+
+        String name;
+
+        Reference(String name) {
+            this.name = name;
+        }
+
+    }
+
+    static class Holder {
+
+        Reference reference;
+        Object[] references;
+        List<Reference> list = new ArrayList<>();
+
+    }
+
+    private static Holder holder(Reference frozen) {
+        Holder holder = new Holder();
+        holder.reference = frozen;
+        holder.references = new Object[] {frozen, new Reference("other")};
+        holder.list.add(frozen);
+        return holder;
+    }
+
+    private static void assertFrozen(Holder original, Holder clone, boolean frozen) {
+        assertThat(clone.reference == original.reference, is(frozen));
+        assertThat(clone.references[0], sameInstance(clone.reference));
+        assertThat(clone.references[1], not(sameInstance(original.references[1])));
+        assertThat(clone.list.get(0), sameInstance(clone.reference));
+    }
+
+    @Test
+    void testFrozen() {
+        FrozenObjectRegistry registry = new FrozenObjectRegistry();
+        Reference frozen = new Reference("frozen");
+        Holder original = holder(frozen);
+        for (Cloner cloner : Arrays.asList(
+            Cloners.builder().setFrozenObjects(registry).build(),
+            Cloners.builder().setFrozenObjects(registry).setMode(CloningMode.RECURSIVE).build(),
+            Cloners.builder().setFrozenObjects(registry).setMode(CloningMode.PARALLEL).build())) {
+            assertFrozen(original, cloner.clone(original), false);
+            registry.freeze(frozen);
+            assertThat(registry.isFrozen(frozen), is(true));
+            assertFrozen(original, cloner.clone(original), true);
+            registry.unfreeze(frozen);
+            assertThat(registry.isFrozen(frozen), is(false));
+            assertFrozen(original, cloner.clone(original), false);
+        }
+    }
+
+    @Test
+    void testFrozenRoot() {
+        FrozenObjectRegistry registry = new FrozenObjectRegistry();
+        Reference frozen = new Reference("frozen");
+        registry.freeze(frozen);
+        Cloner cloner = Cloners.builder().setFrozenObjects(registry).build();
+        assertThat(cloner.clone(frozen), sameInstance(frozen));
+        assertThat(cloner.clone(new Reference("frozen")), not(sameInstance(frozen)));
+    }
+
+    @Test
+    void testIdentity() {
+        FrozenObjectRegistry registry = new FrozenObjectRegistry();
+        registry.freeze(Arrays.asList(1, 2));
+        assertThat(registry.isFrozen(Arrays.asList(1, 2)), is(false));
+        assertThat(registry.size(), is(1));
+    }
+
+    @Test
+    void testWeak() throws InterruptedException {
+        FrozenObjectRegistry registry = new FrozenObjectRegistry();
+        registry.freeze(new Reference("garbage"));
+        for (int k = 0; k < 100 && !registry.isEmpty(); k++) {
+            System.gc();
+            Thread.sleep(10L);
+        }
+        assertThat(registry.isEmpty(), is(true));
+    }
+
+}
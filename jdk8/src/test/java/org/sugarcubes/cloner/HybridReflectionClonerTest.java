@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class HybridReflectionClonerTest extends AbstractClonerTests {
+
+    static class Link {
+
+        int value;
+        Link next;
+
+    }
+
+    public HybridReflectionClonerTest() {
+        super(Cloners.builder().setMode(CloningMode.HYBRID).build());
+    }
+
+    private static void testLongChain(Cloner cloner) {
+        Link head = new Link();
+        Link last = head;
+        for (int k = 1; k < 100_000; k++) {
+            last.next = new Link();
+            last = last.next;
+            last.value = k;
+        }
+        Link clone = cloner.clone(head);
+        int count = 0;
+        for (Link original = head; original != null; original = original.next, clone = clone.next) {
+            assertThat(clone, not(sameInstance(original)));
+            assertThat(clone.value, is(count++));
+        }
+        assertThat(clone, nullValue());
+        assertThat(count, is(100_000));
+    }
+
+    @Test
+    void testLongChain() {
+        testLongChain(Cloners.builder().setMode(CloningMode.HYBRID).build());
+        testLongChain(Cloners.builder().setMode(CloningMode.HYBRID).setRecursionDepth(0).build());
+        testLongChain(Cloners.builder().setMode(CloningMode.HYBRID).setRecursionDepth(1000).build());
+    }
+
+    @Test
+    void testRecursionDepthInOtherModes() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> Cloners.builder().setMode(CloningMode.RECURSIVE).setRecursionDepth(10).build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Cloners.builder().setRecursionDepth(-1));
+    }
+
+}
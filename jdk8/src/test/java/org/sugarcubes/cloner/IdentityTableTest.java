@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class IdentityTableTest {
+
+    @Test
+    void testPutGet() {
+        IdentityTable table = new IdentityTable();
+        List<Object> keys = new ArrayList<>();
+        for (int k = 0; k < 10_000; k++) {
+            Object key = new Object();
+            keys.add(key);
+            assertThat(table.put(key, k), nullValue());
+        }
+        assertThat(table.size(), is(keys.size()));
+        for (int k = 0; k < keys.size(); k++) {
+            assertThat(table.get(keys.get(k)), is(k));
+        }
+        assertThat(table.get(new Object()), nullValue());
+        assertThat(table.put(keys.get(0), "zero"), is(0));
+        assertThat(table.get(keys.get(0)), is("zero"));
+        assertThat(table.size(), is(keys.size()));
+    }
+
+    @Test
+    void testIdentity() {
+        IdentityTable table = new IdentityTable(1);
+        String key = "key";
+        table.put(key, 1);
+        assertThat(table.get(new String(key)), nullValue());
+        assertThat(table.get(key), is(1));
+    }
+
+    @Test
+    void testClear() {
+        IdentityTable table = new IdentityTable(100);
+        Object key = new Object();
+        table.put(key, key);
+        table.clear();
+        assertThat(table.size(), is(0));
+        assertThat(table.get(key), nullValue());
+        table.put(key, "value");
+        assertThat(table.get(key), is("value"));
+    }
+
+    @Test
+    void testPutAll() {
+        Map<Object, Object> map = new IdentityHashMap<>();
+        Object key = new Object();
+        Object value = new Object();
+        map.put(key, value);
+        IdentityTable table = new IdentityTable();
+        table.putAll(map);
+        assertThat(table.get(key), sameInstance(value));
+    }
+
+    @Test
+    void testGraphSizeEstimator() {
+        GraphSizeEstimator estimator = new GraphSizeEstimator();
+        assertThat(estimator.getExpectedSize(), is(0));
+        for (int k = 0; k < 100; k++) {
+            estimator.record(1000);
+        }
+        assertThat(Math.abs(estimator.getExpectedSize() - 1000) <= 4, is(true));
+        estimator.record(0);
+        assertThat(estimator.getExpectedSize() < 800, is(true));
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Currency;
+import java.util.OptionalInt;
+
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class ImmutabilityInferenceTest {
+
+    static final class Money {
+
+        final long amount;
+        final Currency currency;
+
+        Money(long amount, Currency currency) {
+            this.amount = amount;
+            this.currency = currency;
+        }
+
+    }
+
+    static final class Price {
+
+        final Money money;
+        final Price previous;
+
+        Price(Money money, Price previous) {
+            this.money = money;
+            this.previous = previous;
+        }
+
+    }
+
+    static final class MutableHolder {
+
+        final Money money;
+        final int[] values;
+
+        MutableHolder(Money money, int[] values) {
+            this.money = money;
+            this.values = values;
+        }
+
+    }
+
+    static final class NonFinalField {
+
+        Money money;
+
+    }
+
+    static class Wrapper {
+
+        Object price;
+        Object holder;
+        Object nonFinal;
+
+    }
+
+    private static Wrapper wrapper() {
+        Money money = new Money(10L, Currency.getInstance("EUR"));
+        Wrapper wrapper = new Wrapper();
+        wrapper.price = new Price(money, new Price(money, null));
+        wrapper.holder = new MutableHolder(money, new int[] {1});
+        wrapper.nonFinal = new NonFinalField();
+        return wrapper;
+    }
+
+    @Test
+    void testInference() {
+        Wrapper original = wrapper();
+        Wrapper clone = Cloners.builder().setImmutabilityInference(true).build().clone(original);
+        assertThat(clone.price, sameInstance(original.price));
+        assertThat(clone.holder, not(sameInstance(original.holder)));
+        assertThat(((MutableHolder) clone.holder).money, sameInstance(((MutableHolder) original.holder).money));
+        assertThat(clone.nonFinal, not(sameInstance(original.nonFinal)));
+    }
+
+    @Test
+    void testNoInference() {
+        Wrapper original = wrapper();
+        Wrapper clone = Cloners.reflection().clone(original);
+        assertThat(clone.price, not(sameInstance(original.price)));
+        assertThat(((Price) clone.price).money, not(sameInstance(((Price) original.price).money)));
+    }
+
+    @Test
+    void testMutable() {
+        Wrapper original = wrapper();
+        Wrapper clone = Cloners.builder()
+            .setImmutabilityInference(true)
+            .setImmutable(Money.class, false)
+            .build()
+            .clone(original);
+        assertThat(clone.price, not(sameInstance(original.price)));
+        assertThat(((Price) clone.price).money, not(sameInstance(((Price) original.price).money)));
+    }
+
+    @Test
+    void testImmutable() {
+        Wrapper original = wrapper();
+        Wrapper clone = Cloners.builder()
+            .setImmutable(MutableHolder.class, true)
+            .build()
+            .clone(original);
+        assertThat(clone.holder, sameInstance(original.holder));
+        assertThat(clone.price, not(sameInstance(original.price)));
+    }
+
+    @Test
+    void testJdkTypes() {
+        Object[] original = {Currency.getInstance("USD"), OptionalInt.of(1)};
+        Object[] clone = Cloners.reflection().clone(original);
+        for (int k = 0; k < original.length; k++) {
+            assertThat(clone[k], sameInstance(original[k]));
+        }
+    }
+
+    @Test
+    void testJdkSuperTypes() {
+        Object[] original = {StandardCharsets.UTF_8, ZoneId.of("Europe/Paris")};
+        Object[] clone = Cloners.builder().setImmutabilityInference(true).build().clone(original);
+        for (int k = 0; k < original.length; k++) {
+            assertThat(clone[k], sameInstance(original[k]));
+        }
+    }
+
+    @Test
+    void testNoInferenceJdkSuperTypes() {
+        // the fields are not copied, so the JDK internals are not accessed
+        Object[] original = {StandardCharsets.UTF_8, ZoneId.of("Europe/Paris")};
+        Object[] clone = Cloners.builder().setFieldCopierFactory((field, action) -> FieldCopier.NOOP).build().clone(original);
+        for (int k = 0; k < original.length; k++) {
+            assertThat(clone[k], not(sameInstance(original[k])));
+            assertThat(clone[k].getClass(), sameInstance(original[k].getClass()));
+        }
+    }
+
+    @Test
+    void testMutableJdkType() {
+        String[] original = {new String("str")};
+        String[] clone = Cloners.builder().setImmutable(String.class, false).build().clone(original);
+        assertThat(clone[0], is(original[0]));
+        assertThat(clone[0], not(sameInstance(original[0])));
+    }
+
+}
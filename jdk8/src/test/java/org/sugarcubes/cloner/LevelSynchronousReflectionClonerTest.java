@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class LevelSynchronousReflectionClonerTest extends AbstractClonerTests {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    static class Customer {
+
+        String name;
+        Customer referrer;
+        List<Object> orders = new ArrayList<>();
+
+    }
+
+    static class Failing {
+
+    }
+
+    public LevelSynchronousReflectionClonerTest() {
+        super(Cloners.builder().setMode(CloningMode.LEVEL_SYNCHRONOUS).setExecutor(POOL).build());
+    }
+
+    @Test
+    void testBusyExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ReflectionCopierProvider provider = new ReflectionCopierProvider(null, CopyPolicy.defaultPolicy(),
+                CopyPolicy.defaultPolicy(), ObjectAllocator.defaultAllocator(), new HashMap<>(),
+                new ReflectionFieldCopierFactory());
+            Cloner cloner = new ClonerImpl(provider, () -> new LevelSynchronousCopyContext(provider, new IdentityTable(),
+                executor, 4, null));
+            Customer[] original = new Customer[10_000];
+            for (int k = 0; k < original.length; k++) {
+                original[k] = new Customer();
+                original[k].name = "customer" + k;
+            }
+            // the only thread of the executor is the caller, the parts of the levels are copied by the caller
+            Customer[] clone = executor.submit(() -> cloner.clone(original)).get(30, TimeUnit.SECONDS);
+            for (int k = 0; k < original.length; k++) {
+                assertThat(clone[k], not(sameInstance(original[k])));
+                assertThat(clone[k].name, is(original[k].name));
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testWideGraph() {
+        Cloner cloner = Cloners.builder().setMode(CloningMode.LEVEL_SYNCHRONOUS).setExecutor(POOL).build();
+        Customer shared = new Customer();
+        shared.name = "shared";
+        Map<String, Customer> original = new HashMap<>();
+        for (int k = 0; k < 100_000; k++) {
+            Customer customer = new Customer();
+            customer.name = "customer" + k;
+            customer.referrer = shared;
+            customer.orders.add(customer);
+            original.put(customer.name, customer);
+        }
+        for (int n = 0; n < 2; n++) {
+            Map<String, Customer> clone = cloner.clone(original);
+            assertThat(clone.size(), is(original.size()));
+            Customer sharedClone = clone.get("customer0").referrer;
+            assertThat(sharedClone, not(sameInstance(shared)));
+            assertThat(sharedClone.name, is("shared"));
+            for (Map.Entry<String, Customer> entry : original.entrySet()) {
+                Customer customer = clone.get(entry.getKey());
+                assertThat(customer, not(sameInstance(entry.getValue())));
+                assertThat(customer.name, is(entry.getKey()));
+                assertThat(customer.referrer, sameInstance(sharedClone));
+                assertThat(customer.orders.get(0), sameInstance(customer));
+            }
+        }
+    }
+
+    @Test
+    void testFailure() {
+        Cloner cloner = Cloners.builder().setMode(CloningMode.LEVEL_SYNCHRONOUS).setExecutor(POOL)
+            .setCopier(Failing.class, (original, context) -> {
+                throw new IllegalStateException("failed");
+            })
+            .build();
+        List<Object> original = new ArrayList<>();
+        for (int k = 0; k < 10_000; k++) {
+            original.add(new Customer());
+        }
+        original.add(new Failing());
+        Assertions.assertThrows(ClonerException.class, () -> cloner.clone(original));
+    }
+
+    @Test
+    void testOptionsOfOtherModes() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> Cloners.builder().setMode(CloningMode.LEVEL_SYNCHRONOUS).setSplitThreshold(16).build());
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> Cloners.builder().setMode(CloningMode.LEVEL_SYNCHRONOUS).setRecursionDepth(16).build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Cloners.builder()
+            .setMode(CloningMode.LEVEL_SYNCHRONOUS).setTraversalAlgorithm(TraversalAlgorithm.BREADTH_FIRST).build());
+    }
+
+}
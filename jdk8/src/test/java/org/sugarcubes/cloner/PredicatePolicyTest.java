@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PredicatePolicyTest {
+
+    @SuppressWarnings("unchecked")
+    private static PredicatePolicy<Class<?>> policy(Object... predicatesAndActions) {
+        Map<Predicate<Class<?>>, CopyAction> map = new LinkedHashMap<>();
+        for (int k = 0; k < predicatesAndActions.length; k += 2) {
+            map.put((Predicate<Class<?>>) predicatesAndActions[k], (CopyAction) predicatesAndActions[k + 1]);
+        }
+        return new PredicatePolicy<>(map);
+    }
+
+    @Test
+    void testSubclass() {
+        PredicatePolicy<Class<?>> policy = policy(
+            Predicates.subclass(AbstractList.class), CopyAction.NULL,
+            Predicates.subclass(RandomAccess.class), CopyAction.DEFAULT,
+            Predicates.subclass(CharSequence.class), CopyAction.SKIP
+        );
+        assertThat(policy.getAction(ArrayList.class), is(CopyAction.NULL));
+        assertThat(policy.getAction(AbstractList.class), is(CopyAction.NULL));
+        assertThat(policy.getAction(String.class), is(CopyAction.SKIP));
+        assertThat(policy.getAction(Collection.class), is(CopyAction.DEFAULT));
+        assertThat(policy.getAction(List.class), is(CopyAction.DEFAULT));
+        assertThat(policy.getAction(int.class), is(CopyAction.DEFAULT));
+        assertThat(policy.getAction(Object[].class), is(CopyAction.DEFAULT));
+    }
+
+    @Test
+    void testObjectSubclass() {
+        PredicatePolicy<Class<?>> policy = policy(Predicates.subclass(Object.class), CopyAction.ORIGINAL);
+        assertThat(policy.getAction(List.class), is(CopyAction.ORIGINAL));
+        assertThat(policy.getAction(int[].class), is(CopyAction.ORIGINAL));
+        assertThat(policy.getAction(int.class), is(CopyAction.DEFAULT));
+    }
+
+    @Test
+    void testArraySubclass() {
+        PredicatePolicy<Class<?>> policy = policy(Predicates.subclass(Object[].class), CopyAction.ORIGINAL);
+        assertThat(policy.getAction(Object[].class), is(CopyAction.ORIGINAL));
+        assertThat(policy.getAction(String[].class), is(CopyAction.ORIGINAL));
+        assertThat(policy.getAction(int[][].class), is(CopyAction.ORIGINAL));
+        assertThat(policy.getAction(int[].class), is(CopyAction.DEFAULT));
+        assertThat(policy.getAction(Object.class), is(CopyAction.DEFAULT));
+    }
+
+    @Test
+    void testArraySubclassAction() {
+        Cloner cloner = Cloners.builder().setTypeAction(Predicates.subclass(Number[].class), CopyAction.NULL).build();
+        Object[] original = {new Integer[] {1, 2}, new Number[] {3}, new String[] {"4"}};
+        Object[] clone = cloner.clone(original);
+        assertThat(clone[0], nullValue());
+        assertThat(clone[1], nullValue());
+        assertThat(clone[2], not(sameInstance(original[2])));
+    }
+
+    @Test
+    void testMixedPredicates() {
+        PredicatePolicy<Class<?>> policy = policy(
+            Predicates.subclass(Number.class), CopyAction.ORIGINAL,
+            Predicates.same(String.class), CopyAction.NULL
+        );
+        assertThat(policy.getAction(Integer.class), is(CopyAction.ORIGINAL));
+        assertThat(policy.getAction(String.class), is(CopyAction.NULL));
+        assertThat(policy.getAction(Object.class), is(CopyAction.DEFAULT));
+    }
+
+    @Test
+    void testMultipleActions() {
+        PredicatePolicy<Class<?>> policy = policy(
+            Predicates.subclass(Number.class), CopyAction.ORIGINAL,
+            Predicates.subclass(Comparable.class), CopyAction.NULL
+        );
+        assertThat(policy.getAction(Number.class), is(CopyAction.ORIGINAL));
+        assertThrows(ClonerException.class, () -> policy.getAction(Integer.class));
+        PredicatePolicy<Class<?>> duplicates = policy(
+            Predicates.subclass(Number.class), CopyAction.ORIGINAL,
+            Predicates.subclass(Number.class), CopyAction.NULL
+        );
+        assertThrows(ClonerException.class, () -> duplicates.getAction(Integer.class));
+        PredicatePolicy<Class<?>> mixed = policy(
+            Predicates.subclass(Number.class), CopyAction.ORIGINAL,
+            Predicates.same(Integer.class), CopyAction.NULL
+        );
+        assertThrows(ClonerException.class, () -> mixed.getAction(Integer.class));
+    }
+
+}
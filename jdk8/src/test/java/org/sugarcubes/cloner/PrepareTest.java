@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class PrepareTest {
+
+    static class Base {
+
+        int value = 1;
+
+    }
+
+    static class Derived extends Base {
+
+        String name = "derived";
+
+    }
+
+    static class CountingAllocator implements ObjectAllocator {
+
+        final ObjectAllocator allocator = ObjectAllocator.defaultAllocator();
+
+        final Map<Class<?>, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+        @Override
+        public <T> ObjectFactory<T> getFactory(Class<T> type) {
+            counters.computeIfAbsent(type, t -> new AtomicInteger()).incrementAndGet();
+            try {
+                Thread.sleep(20L);
+            }
+            catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return allocator.getFactory(type);
+        }
+
+    }
+
+    @Test
+    void testSingleConstruction() {
+        CountingAllocator allocator = new CountingAllocator();
+        Cloner cloner = Cloners.builder().setAllocator(allocator).build();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Class<?>> types = Collections.nCopies(64, Derived.class);
+            cloner.prepare(types, executor);
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertThat(allocator.counters.get(Derived.class).get(), is(1));
+        assertThat(allocator.counters.get(Base.class).get(), is(1));
+        Derived original = new Derived();
+        Derived clone = cloner.clone(original);
+        assertThat(clone, not(sameInstance(original)));
+        assertThat(clone.name, is(original.name));
+        assertThat(allocator.counters.get(Derived.class).get(), is(1));
+    }
+
+    @Test
+    void testPrepare() {
+        CountingAllocator allocator = new CountingAllocator();
+        Cloner cloner = Cloners.builder().setAllocator(allocator).build();
+        cloner.prepare(Derived.class, Runnable.class, int.class, int[].class);
+        assertThat(allocator.counters.containsKey(Derived.class), is(true));
+        assertThat(allocator.counters.containsKey(Base.class), is(true));
+        assertThat(allocator.counters.containsKey(Runnable.class), is(false));
+    }
+
+    @Test
+    void testPrepareGraph() {
+        CountingAllocator allocator = new CountingAllocator();
+        Cloner cloner = Cloners.builder().setAllocator(allocator).build();
+        cloner.prepareGraph(new Derived());
+        assertThat(allocator.counters.containsKey(Derived.class), is(true));
+        assertThat(allocator.counters.containsKey(Base.class), is(true));
+    }
+
+    @Test
+    void testScanPackage() {
+        List<Class<?>> classes = ClassScanner.findClasses(getClass().getPackage().getName(), getClass().getClassLoader());
+        assertThat(classes.contains(PrepareTest.class), is(true));
+        assertThat(classes.contains(Derived.class), is(true));
+        assertThat(classes.contains(ClonerImpl.class), is(true));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Cloners.reflection().prepare(classes.stream()
+                .filter(type -> type.getName().startsWith(PrepareTest.class.getName()))
+                .collect(Collectors.toList()), executor);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -33,4 +33,19 @@ public class SerializationClonerTest extends AbstractClonerTests {
     void testAnnotations() {
     }
 
+    @Override
+    @Disabled
+    void testCloneable() {
+    }
+
+    @Override
+    @Disabled
+    void testCloneablePatchedFields() {
+    }
+
+    @Override
+    @Disabled
+    void testCloneableSkippedField() {
+    }
+
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.Comparator;
+
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class StatelessTypesTest {
+
+    static class Strategy {
+
+        static final String NAME = "strategy";
+
+    }
+
+    static class Stateful {
+
+        int value;
+
+    }
+
+    static class StatefulSubclass extends Stateful {
+
+    }
+
+    static class Holder {
+
+        Object strategy = new Strategy();
+        Object stateful = new StatefulSubclass();
+        Object lock = new Object();
+
+    }
+
+    @Test
+    void testShareStateless() {
+        Holder original = new Holder();
+        Holder clone = Cloners.builder().setShareStateless(true).build().clone(original);
+        assertThat(clone.strategy, sameInstance(original.strategy));
+        assertThat(clone.stateful, not(sameInstance(original.stateful)));
+        assertThat(clone.lock, not(sameInstance(original.lock)));
+    }
+
+    @Test
+    void testCopyStateless() {
+        Holder original = new Holder();
+        Holder clone = Cloners.reflection().clone(original);
+        assertThat(clone.strategy, not(sameInstance(original.strategy)));
+        assertThat(clone.stateful, not(sameInstance(original.stateful)));
+    }
+
+    @Test
+    void testMutableStateless() {
+        Holder original = new Holder();
+        Holder clone = Cloners.builder()
+            .setShareStateless(true)
+            .setImmutable(Strategy.class, false)
+            .build()
+            .clone(original);
+        assertThat(clone.strategy, not(sameInstance(original.strategy)));
+    }
+
+    @Test
+    void testShareLambda() {
+        Comparator<String> comparator = (a, b) -> 0;
+        Comparator<?>[] original = {comparator, Comparator.naturalOrder()};
+        Comparator<?>[] clone = Cloners.builder().setShareStateless(true).build().clone(original);
+        assertThat(clone[0], sameInstance(comparator));
+        assertThat(clone[1], sameInstance(original[1]));
+    }
+
+    @Test
+    void testIsStateless() {
+        assertThat(StatelessTypePolicy.isStateless(Strategy.class), is(true));
+        assertThat(StatelessTypePolicy.isStateless(Stateful.class), is(false));
+        assertThat(StatelessTypePolicy.isStateless(StatefulSubclass.class), is(false));
+        assertThat(StatelessTypePolicy.isStateless(Object[].class), is(false));
+        assertThat(StatelessTypePolicy.isStateless(Object.class), is(false));
+    }
+
+}
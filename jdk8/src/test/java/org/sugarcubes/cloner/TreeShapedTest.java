@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class TreeShapedTest {
+
+    @TreeShaped
+    static class Annotated {
+
+        int value = 1;
+
+    }
+
+    static class Leaf {
+
+        int value = 2;
+
+    }
+
+    static class Node {
+
+        List<Object> children = new ArrayList<>();
+        Node parent;
+
+    }
+
+    private static List<ReflectionClonerBuilder> builders() {
+        return Arrays.asList(Cloners.builder(), Cloners.builder().setMode(CloningMode.RECURSIVE),
+            Cloners.builder().setMode(CloningMode.PARALLEL));
+    }
+
+    private static Node shared(Object child) {
+        Node node = new Node();
+        node.children.add(child);
+        node.children.add(child);
+        return node;
+    }
+
+    @Test
+    void testTreeShapedGraph() {
+        for (ReflectionClonerBuilder builder : builders()) {
+            Cloner cloner = builder.setTreeShaped(true).setTreeShapeVerification(true).build();
+            Node original = new Node();
+            original.children.add(new Leaf());
+            original.children.add(new Node());
+            for (int k = 0; k < 3; k++) {
+                Node clone = cloner.clone(original);
+                assertThat(clone.children.get(0), not(sameInstance(original.children.get(0))));
+                assertThat(((Leaf) clone.children.get(0)).value, is(2));
+                assertThat(clone.children.get(1), not(sameInstance(original.children.get(1))));
+            }
+        }
+    }
+
+    @Test
+    void testSharedObjectsAreNotTracked() {
+        for (ReflectionClonerBuilder builder : builders()) {
+            Cloner cloner = builder.setTreeShaped(Leaf.class).build();
+            Node leaves = cloner.clone(shared(new Leaf()));
+            assertThat(leaves.children.get(0), not(sameInstance(leaves.children.get(1))));
+            Node annotated = cloner.clone(shared(new Annotated()));
+            assertThat(annotated.children.get(0), not(sameInstance(annotated.children.get(1))));
+            Node nodes = cloner.clone(shared(new Node()));
+            assertThat(nodes.children.get(0), sameInstance(nodes.children.get(1)));
+        }
+    }
+
+    @Test
+    void testVerification() {
+        for (ReflectionClonerBuilder builder : builders()) {
+            Cloner cloner = builder.setTreeShaped(true).setTreeShapeVerification(true).build();
+            Assertions.assertThrows(ClonerException.class, () -> cloner.clone(shared(new Leaf())));
+            Node cyclic = new Node();
+            cyclic.children.add(new Node());
+            ((Node) cyclic.children.get(0)).parent = cyclic;
+            Assertions.assertThrows(ClonerException.class, () -> cloner.clone(cyclic));
+        }
+    }
+
+}
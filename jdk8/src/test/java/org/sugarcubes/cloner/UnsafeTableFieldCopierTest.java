@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sugarcubes.cloner;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class UnsafeTableFieldCopierTest {
+
+    static class Base {
+
+        byte b1 = -1;
+        boolean z = true;
+        short s = Short.MIN_VALUE;
+        char c = Character.MAX_VALUE;
+        Object baseRef;
+
+    }
+
+    static class Primitives extends Base {
+
+        long l = Long.MIN_VALUE;
+        double d = -Double.MAX_VALUE;
+        int i1 = -1;
+        int i2 = Integer.MIN_VALUE;
+        float f = Float.MIN_VALUE;
+        byte b2 = Byte.MIN_VALUE;
+        int skipped = 1;
+
+    }
+
+    static class Recorded {
+
+        final String name;
+
+        Recorded(String name) {
+            this.name = name;
+        }
+
+    }
+
+    static class References extends Base {
+
+        Recorded first = new Recorded("first");
+        Object original = new Object();
+        Object nulled = new Object();
+        Object skipped = new Object();
+        Recorded second = new Recorded("second");
+        Recorded third = new Recorded("third");
+
+    }
+
+    private static Map<Field, CopyAction> actions(Class<?> type, String skipped) {
+        Map<Field, CopyAction> fields = ReflectionCopier.getFieldActions(new AnnotatedFieldCopyPolicy(), type);
+        Map<Field, CopyAction> result = new LinkedHashMap<>();
+        fields.forEach((field, action) -> result.put(field, field.getName().equals(skipped) ? CopyAction.SKIP : action));
+        return result;
+    }
+
+    @Test
+    void testPrimitives() throws Exception {
+        Primitives original = new Primitives();
+        original.b1 = 0x7f;
+        original.z = false;
+        original.s = -2;
+        original.c = 'x';
+        original.l = -2L;
+        original.d = Math.PI;
+        original.i1 = 0x12345678;
+        original.i2 = -3;
+        original.f = Float.NaN;
+        original.b2 = -4;
+        original.skipped = 2;
+        Primitives clone = new Primitives();
+        new UnsafeTableFieldCopier(actions(Primitives.class, "skipped")).copy(original, clone, null);
+        assertThat(clone.b1, is(original.b1));
+        assertThat(clone.z, is(original.z));
+        assertThat(clone.s, is(original.s));
+        assertThat(clone.c, is(original.c));
+        assertThat(clone.l, is(original.l));
+        assertThat(Double.doubleToRawLongBits(clone.d), is(Double.doubleToRawLongBits(original.d)));
+        assertThat(clone.i1, is(original.i1));
+        assertThat(clone.i2, is(original.i2));
+        assertThat(Float.floatToRawIntBits(clone.f), is(Float.floatToRawIntBits(original.f)));
+        assertThat(clone.b2, is(original.b2));
+        assertThat(clone.skipped, is(1));
+    }
+
+    @Test
+    void testNullPrimitive() throws Exception {
+        Map<Field, CopyAction> fields = new LinkedHashMap<>();
+        fields.put(Primitives.class.getDeclaredField("l"), CopyAction.NULL);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new UnsafeTableFieldCopier(fields));
+    }
+
+    @Test
+    void testReferences() {
+        List<String> order = new ArrayList<>();
+        Cloner cloner = Cloners.builder().setUnsafe()
+            .setCopier(Recorded.class, (ObjectCopier<Recorded>) (original, context) -> {
+                order.add(original.name);
+                return new Recorded(original.name);
+            })
+            .setFieldAction(References.class, "original", CopyAction.ORIGINAL)
+            .setFieldAction(References.class, "nulled", CopyAction.NULL)
+            .setFieldAction(References.class, "skipped", CopyAction.SKIP)
+            .build();
+        References original = new References();
+        original.baseRef = new Recorded("base");
+        References clone = cloner.clone(original);
+        assertThat(clone.baseRef, not(sameInstance(original.baseRef)));
+        assertThat(clone.first, not(sameInstance(original.first)));
+        assertThat(clone.first.name, is("first"));
+        assertThat(clone.original, sameInstance(original.original));
+        assertThat(clone.nulled, nullValue());
+        assertThat(clone.skipped, not(sameInstance(original.skipped)));
+        assertThat(clone.s, is(original.s));
+        // the fields are deep copied in the declaration order, the fields of the super class go first
+        assertThat(order, is(Arrays.asList("base", "first", "second", "third")));
+    }
+
+}
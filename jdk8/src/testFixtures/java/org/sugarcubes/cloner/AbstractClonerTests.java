@@ -19,6 +19,8 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -87,6 +89,83 @@ abstract class AbstractClonerTests {
         assertThat(clone[4], is(original[4]));
     }
 
+    static class PrimitiveFields implements Serializable {
+
+        boolean z = true;
+        byte b = 1;
+        char c = 'c';
+        short s = 3;
+        int i = 4;
+        long l = 5L;
+        float f = 6.0f;
+        double d = 7.0;
+
+    }
+
+    static class MorePrimitiveFields extends PrimitiveFields {
+
+        byte b2 = -1;
+        Object o = "o";
+        int i2 = -2;
+        char c2 = 'C';
+        long l2 = -3L;
+
+    }
+
+    @Test
+    void testPrimitiveFields() {
+        MorePrimitiveFields original = new MorePrimitiveFields();
+        MorePrimitiveFields clone = cloner.clone(original);
+        assertThat(clone.z, is(original.z));
+        assertThat(clone.b, is(original.b));
+        assertThat(clone.c, is(original.c));
+        assertThat(clone.s, is(original.s));
+        assertThat(clone.i, is(original.i));
+        assertThat(clone.l, is(original.l));
+        assertThat(clone.f, is(original.f));
+        assertThat(clone.d, is(original.d));
+        assertThat(clone.b2, is(original.b2));
+        assertThat(clone.o, is(original.o));
+        assertThat(clone.i2, is(original.i2));
+        assertThat(clone.c2, is(original.c2));
+        assertThat(clone.l2, is(original.l2));
+    }
+
+    static class Holder implements Serializable {
+
+        Object value;
+
+        Holder(Object value) {
+            this.value = value;
+        }
+
+    }
+
+    @Test
+    void testPolymorphicField() {
+        List<Object> values = Arrays.asList("str", 1, 2L, new ArrayList<>(Arrays.asList(3, 4)), new int[] {5},
+            Collections.singletonMap(6, 7), new Empty(), null, BigDecimal.ONE, new HashMap<>(), new Object[] {8});
+        List<Holder> original = Stream.generate(() -> values)
+            .limit(4)
+            .flatMap(List::stream)
+            .map(Holder::new)
+            .collect(Collectors.toList());
+        List<Holder> clone = cloner.clone(original);
+        assertThat(clone.size(), is(original.size()));
+        for (int k = 0; k < original.size(); k++) {
+            Object originalValue = original.get(k).value;
+            Object cloneValue = clone.get(k).value;
+            assertThat(cloneValue == null ? null : cloneValue.getClass(),
+                is(originalValue == null ? null : originalValue.getClass()));
+            if (originalValue instanceof String || originalValue instanceof Number) {
+                assertThat(cloneValue, is(originalValue));
+            }
+            else if (originalValue != null) {
+                assertThat(cloneValue, not(sameInstance(originalValue)));
+            }
+        }
+    }
+
     static class CyclicDependencies implements Serializable {
 
         Object self = this;
@@ -179,6 +258,22 @@ abstract class AbstractClonerTests {
 
     }
 
+    @TypePolicy(CopyAction.NULL)
+    static final class FinalAnnotatedNull {
+
+    }
+
+    enum EnumWithBodies {
+
+        A {
+            @Override
+            public String toString() {
+                return "a";
+            }
+        },
+
+    }
+
     @TypeCopier(CustomCopier.class)
     static class AnnotatedWithCopier {
 
@@ -200,11 +295,35 @@ abstract class AbstractClonerTests {
 
     }
 
+    @TypeCopier(FinalCustomCopier.class)
+    static final class FinalAnnotatedWithCopier {
+
+        final int x;
+
+        FinalAnnotatedWithCopier(int x) {
+            this.x = x;
+        }
+
+    }
+
+    static class FinalCustomCopier implements ObjectCopier<FinalAnnotatedWithCopier> {
+
+        @Override
+        public FinalAnnotatedWithCopier copy(FinalAnnotatedWithCopier original, CopyContext context) throws Exception {
+            return new FinalAnnotatedWithCopier(-original.x);
+        }
+
+    }
+
     static class AnnotationTestObject {
 
         AnnotatedOriginal ao = new AnnotatedOriginal();
         AnnotatedNull an = new AnnotatedNull();
         AnnotatedWithCopier ac = new AnnotatedWithCopier(1);
+        FinalAnnotatedNull fan = new FinalAnnotatedNull();
+        FinalAnnotatedWithCopier fac = new FinalAnnotatedWithCopier(2);
+        EnumWithBodies e = EnumWithBodies.A;
+        Object eo = EnumWithBodies.A;
 
         @FieldPolicy(CopyAction.SKIP)
         Object skip;
@@ -233,11 +352,106 @@ abstract class AbstractClonerTests {
         assertThat(clone.ac, not(sameInstance(original.ac)));
         assertThat(clone.ac.x, is(-original.ac.x));
         assertThat(clone.an, nullValue());
+        assertThat(clone.fan, nullValue());
+        assertThat(clone.fac, not(sameInstance(original.fac)));
+        assertThat(clone.fac.x, is(-original.fac.x));
+        assertThat(clone.e, sameInstance(original.e));
+        assertThat(clone.eo, sameInstance(original.eo));
+        assertThat(clone.skip, nullValue());
+        assertThat(clone.orig, sameInstance(original.orig));
+        assertThat(clone.nil, nullValue());
+    }
+
+    static class CloneableObject extends AnnotationTestObject implements Cloneable {
+
+        int x = 1;
+        long y = 2L;
+        int[] array = {3};
+        Object self = this;
+
+    }
+
+    @Test
+    void testCloneable() {
+        CloneableObject original = new CloneableObject();
+        original.skip = new Object();
+        original.orig = new Object();
+        original.nil = new Object();
+
+        CloneableObject clone = cloner.clone(original);
+
+        assertThat(clone, not(sameInstance(original)));
+        assertThat(clone.x, is(original.x));
+        assertThat(clone.y, is(original.y));
+        assertThat(clone.array, not(sameInstance(original.array)));
+        assertThat(clone.array[0], is(original.array[0]));
+        assertThat(clone.self, sameInstance(clone));
+        assertThat(clone.ao, sameInstance(original.ao));
+        assertThat(clone.an, nullValue());
+        assertThat(clone.ac.x, is(-original.ac.x));
         assertThat(clone.skip, nullValue());
         assertThat(clone.orig, sameInstance(original.orig));
         assertThat(clone.nil, nullValue());
     }
 
+    static class PatchedCloneableObject implements Cloneable {
+
+        int x = 1;
+        Object self = this;
+        AnnotatedOriginal ao = new AnnotatedOriginal();
+
+        @FieldPolicy(CopyAction.ORIGINAL)
+        Object orig = new Object();
+
+        @FieldPolicy(CopyAction.NULL)
+        Object nil = new Object();
+
+    }
+
+    @Test
+    void testCloneablePatchedFields() {
+        PatchedCloneableObject original = new PatchedCloneableObject();
+
+        PatchedCloneableObject clone = cloner.clone(original);
+
+        assertThat(clone, not(sameInstance(original)));
+        assertThat(clone.x, is(original.x));
+        assertThat(clone.self, sameInstance(clone));
+        assertThat(clone.ao, sameInstance(original.ao));
+        assertThat(clone.orig, sameInstance(original.orig));
+        assertThat(clone.nil, nullValue());
+    }
+
+    static final Object INITIAL = new Object();
+
+    static class SkippedFieldObject {
+
+        @FieldPolicy(CopyAction.SKIP)
+        Object skip = INITIAL;
+
+    }
+
+    static class CloneableSkippedFieldObject implements Cloneable {
+
+        @FieldPolicy(CopyAction.SKIP)
+        Object skip = INITIAL;
+
+    }
+
+    @Test
+    void testCloneableSkippedField() {
+        SkippedFieldObject original = new SkippedFieldObject();
+        original.skip = new Object();
+        CloneableSkippedFieldObject cloneableOriginal = new CloneableSkippedFieldObject();
+        cloneableOriginal.skip = original.skip;
+
+        SkippedFieldObject clone = cloner.clone(original);
+        CloneableSkippedFieldObject cloneableClone = cloner.clone(cloneableOriginal);
+
+        assertThat(clone.skip, not(sameInstance(original.skip)));
+        assertThat(cloneableClone.skip, sameInstance(clone.skip));
+    }
+
     @Test
     void testRandomObjects() {
         List<Object> objects = Stream.generate(() -> TestObjectFactory.randomObject(8, 8))
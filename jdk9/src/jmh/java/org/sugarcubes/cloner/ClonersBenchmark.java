@@ -49,9 +49,13 @@ public class ClonersBenchmark {
     private Cloner serialization;
     private Cloner reflection;
     private Cloner recursive;
+    private Cloner hybrid;
     private Cloner unsafe;
     private Cloner parallel;
+    private Cloner levelSynchronous;
     private Cloner varhandle;
+    private Cloner methodhandle;
+    private Cloner bytecode;
     private Kryo kryo;
     private com.rits.cloning.Cloner kk;
 
@@ -63,9 +67,13 @@ public class ClonersBenchmark {
         serialization = Cloners.serialization();
         reflection = Cloners.builder().build();
         recursive = Cloners.builder().setMode(CloningMode.RECURSIVE).build();
+        hybrid = Cloners.builder().setMode(CloningMode.HYBRID).build();
         unsafe = Cloners.builder().setUnsafe().build();
         parallel = Cloners.builder().setMode(CloningMode.PARALLEL).build();
+        levelSynchronous = Cloners.builder().setMode(CloningMode.LEVEL_SYNCHRONOUS).build();
         varhandle = Cloners.builder().setFieldCopierFactory(new VarHandleFieldCopierFactory()).build();
+        methodhandle = Cloners.builder().setFieldCopierFactory(new MethodHandleFieldCopierFactory()).build();
+        bytecode = Cloners.builder().setFieldCopierFactory(new BytecodeFieldCopierFactory()).build();
         kryo = new Kryo();
         kryo.setRegistrationRequired(false);
         kk = new com.rits.cloning.Cloner();
@@ -91,6 +99,11 @@ public class ClonersBenchmark {
         recursive.clone(sample);
     }
 
+    @Benchmark
+    public void hybrid() {
+        hybrid.clone(sample);
+    }
+
     @Benchmark
     public void unsafe() {
         unsafe.clone(sample);
@@ -101,11 +114,26 @@ public class ClonersBenchmark {
         parallel.clone(sample);
     }
 
+    @Benchmark
+    public void levelSynchronous() {
+        levelSynchronous.clone(sample);
+    }
+
     @Benchmark
     public void varhandle() {
         varhandle.clone(sample);
     }
 
+    @Benchmark
+    public void methodhandle() {
+        methodhandle.clone(sample);
+    }
+
+    @Benchmark
+    public void bytecode() {
+        bytecode.clone(sample);
+    }
+
     @Benchmark
     public void kryo() {
         kryo.copy(sample);
@@ -35,6 +35,9 @@ class ProfilingTest {
     private final Cloner parallel = Cloners.builder().setMode(CloningMode.PARALLEL).build();
     private final Cloner recursive = Cloners.builder().setMode(CloningMode.RECURSIVE).build();
     private final Cloner varhandle = Cloners.builder().setFieldCopierFactory(new VarHandleFieldCopierFactory()).build();
+    private final Cloner methodhandle =
+        Cloners.builder().setFieldCopierFactory(new MethodHandleFieldCopierFactory()).build();
+    private final Cloner bytecode = Cloners.builder().setFieldCopierFactory(new BytecodeFieldCopierFactory()).build();
 
     private final Kryo kryo = new Kryo();
     private final com.rits.cloning.Cloner kk = new com.rits.cloning.Cloner();
@@ -54,6 +57,8 @@ class ProfilingTest {
         parallel();
         recursive();
         varhandle();
+        methodhandle();
+        bytecode();
         kryo();
         kk();
     }
@@ -78,6 +83,14 @@ class ProfilingTest {
         measure("varhandle", () -> varhandle.clone(sample));
     }
 
+    void methodhandle() {
+        measure("methodhandle", () -> methodhandle.clone(sample));
+    }
+
+    void bytecode() {
+        measure("bytecode", () -> bytecode.clone(sample));
+    }
+
     void kryo() {
         measure("kryo", () -> kryo.copy(sample));
     }
@@ -20,35 +20,164 @@ import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
 
 /**
- * Field copiers factory which uses {@link VarHandle} for getting/setting field values.
+ * Field copiers factory which uses {@link VarHandle} for getting/setting field values. Primitive fields are copied
+ * with the type-exact access signatures, so the values are not boxed.
  *
  * @author Maxim Butov
  */
-public final class VarHandleFieldCopierFactory implements FieldCopierFactory {
+public final class VarHandleFieldCopierFactory extends AbstractFieldCopierFactory {
+
+    /**
+     * Field access mode.
+     */
+    public enum Access {
+
+        /**
+         * Plain access, {@link VarHandle#get(Object...)} and {@link VarHandle#set(Object...)}.
+         */
+        PLAIN,
+
+        /**
+         * Opaque access, {@link VarHandle#getOpaque(Object...)} and {@link VarHandle#setOpaque(Object...)}.
+         */
+        OPAQUE,
+
+    }
 
     /**
      * Trusted {@link MethodHandles.Lookup} instance.
      */
     private static final MethodHandles.Lookup LOOKUP = MethodHandlesLookupUtils.getLookup();
 
+    /**
+     * Field access mode.
+     */
+    private final Access access;
+
+    /**
+     * Creates factory with {@link Access#PLAIN} access mode.
+     */
+    public VarHandleFieldCopierFactory() {
+        this(Access.PLAIN);
+    }
+
+    /**
+     * Creates factory with the specified access mode.
+     *
+     * @param access field access mode
+     */
+    public VarHandleFieldCopierFactory(Access access) {
+        this.access = Check.argNotNull(access, "Access mode");
+    }
+
     @Override
-    public FieldCopier getFieldCopier(Field field, CopyAction action) {
-        if (action == CopyAction.SKIP) {
-            return FieldCopier.NOOP;
-        }
-        Check.illegalArg(field.getType().isPrimitive() && action == CopyAction.NULL,
-            "Cannot apply action NULL for primitive field %s.", field);
-        VarHandle handle = ReflectionUtils.execute(() -> LOOKUP.unreflectVarHandle(field));
+    protected FieldCopier getPrimitiveFieldCopier(Field field) {
+        VarHandle handle = getHandle(field);
+        return access == Access.OPAQUE ? getOpaquePrimitiveFieldCopier(field.getType(), handle) :
+            getPlainPrimitiveFieldCopier(field.getType(), handle);
+    }
+
+    @Override
+    protected FieldCopier getObjectFieldCopier(Field field, CopyAction action) {
+        VarHandle handle = getHandle(field);
+        boolean opaque = access == Access.OPAQUE;
         switch (action) {
+            case SKIP:
+                return FieldCopier.NOOP;
             case NULL:
-                return (original, clone, context) -> handle.set(clone, null);
+                return opaque ? (original, clone, context) -> handle.setOpaque(clone, (Object) null) :
+                    (original, clone, context) -> handle.set(clone, (Object) null);
             case ORIGINAL:
-                return (original, clone, context) -> handle.set(clone, handle.get(original));
+                return opaque ? (original, clone, context) -> handle.setOpaque(clone, handle.getOpaque(original)) :
+                    (original, clone, context) -> handle.set(clone, handle.get(original));
             case DEFAULT:
-                return (original, clone, context) -> handle.set(clone, context.copy(handle.get(original)));
+                CopierInlineCache cache = new CopierInlineCache(field.getDeclaringClass());
+                return opaque ?
+                    (original, clone, context) -> handle.setOpaque(clone, cache.copy(handle.getOpaque(original), context)) :
+                    (original, clone, context) -> handle.set(clone, cache.copy(handle.get(original), context));
             default:
                 throw new IllegalStateException();
         }
     }
 
+    /**
+     * Returns {@link VarHandle} for the field.
+     *
+     * @param field field
+     * @return var handle
+     */
+    private static VarHandle getHandle(Field field) {
+        return ReflectionUtils.execute(() -> LOOKUP.unreflectVarHandle(field));
+    }
+
+    /**
+     * Returns field copier with plain access for the primitive field.
+     *
+     * @param type field type
+     * @param handle var handle
+     * @return field copier
+     */
+    private static FieldCopier getPlainPrimitiveFieldCopier(Class<?> type, VarHandle handle) {
+        if (type == boolean.class) {
+            return (original, clone, context) -> handle.set(clone, (boolean) handle.get(original));
+        }
+        if (type == byte.class) {
+            return (original, clone, context) -> handle.set(clone, (byte) handle.get(original));
+        }
+        if (type == char.class) {
+            return (original, clone, context) -> handle.set(clone, (char) handle.get(original));
+        }
+        if (type == short.class) {
+            return (original, clone, context) -> handle.set(clone, (short) handle.get(original));
+        }
+        if (type == int.class) {
+            return (original, clone, context) -> handle.set(clone, (int) handle.get(original));
+        }
+        if (type == long.class) {
+            return (original, clone, context) -> handle.set(clone, (long) handle.get(original));
+        }
+        if (type == float.class) {
+            return (original, clone, context) -> handle.set(clone, (float) handle.get(original));
+        }
+        if (type == double.class) {
+            return (original, clone, context) -> handle.set(clone, (double) handle.get(original));
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Returns field copier with opaque access for the primitive field.
+     *
+     * @param type field type
+     * @param handle var handle
+     * @return field copier
+     */
+    private static FieldCopier getOpaquePrimitiveFieldCopier(Class<?> type, VarHandle handle) {
+        if (type == boolean.class) {
+            return (original, clone, context) -> handle.setOpaque(clone, (boolean) handle.getOpaque(original));
+        }
+        if (type == byte.class) {
+            return (original, clone, context) -> handle.setOpaque(clone, (byte) handle.getOpaque(original));
+        }
+        if (type == char.class) {
+            return (original, clone, context) -> handle.setOpaque(clone, (char) handle.getOpaque(original));
+        }
+        if (type == short.class) {
+            return (original, clone, context) -> handle.setOpaque(clone, (short) handle.getOpaque(original));
+        }
+        if (type == int.class) {
+            return (original, clone, context) -> handle.setOpaque(clone, (int) handle.getOpaque(original));
+        }
+        if (type == long.class) {
+            return (original, clone, context) -> handle.setOpaque(clone, (long) handle.getOpaque(original));
+        }
+        if (type == float.class) {
+            return (original, clone, context) -> handle.setOpaque(clone, (float) handle.getOpaque(original));
+        }
+        if (type == double.class) {
+            return (original, clone, context) -> handle.setOpaque(clone, (double) handle.getOpaque(original));
+        }
+        throw new IllegalStateException();
+    }
+
 }